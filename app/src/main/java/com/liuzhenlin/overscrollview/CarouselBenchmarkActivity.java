@@ -0,0 +1,128 @@
+package com.liuzhenlin.overscrollview;
+
+import android.annotation.SuppressLint;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.HorizontalScrollView;
+import android.widget.TextView;
+
+import com.liuzhenlin.overscroll.HorizontalOverScrollView;
+
+import me.slideback.activity.SlideBackActivity;
+
+import static android.support.v7.widget.LinearLayoutManager.VERTICAL;
+
+/**
+ * Benchmarks a vertical list of {@value #CAROUSEL_COUNT} {@link HorizontalOverScrollView}
+ * carousels: all the rows are inflated up front into the recycled view pool, and the average
+ * inflation time and java heap per row are shown above the list, next to those of the same
+ * rows built on a plain {@link HorizontalScrollView}.
+ */
+public class CarouselBenchmarkActivity extends SlideBackActivity {
+    private static final int CAROUSEL_COUNT = 50;
+
+    @SuppressLint("SetTextI18n")
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_carousel_benchmark);
+        RecyclerView view = findViewById(R.id.recycler_carousels);
+        CarouselAdapter adapter = new CarouselAdapter();
+        view.setLayoutManager(new LinearLayoutManager(this, VERTICAL, false));
+
+        // 两种行各先创建一次，以免类加载与资源解析的耗时被计入先统计的一方
+        LayoutInflater inflater = LayoutInflater.from(this);
+        inflater.inflate(R.layout.item_carousel_plain, view, false);
+        adapter.createViewHolder(view, 0);
+
+        // 以内容相同的原生HorizontalScrollView的行作为对照，统计其每一行的创建耗时与所占的内存
+        final Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long startTime = System.nanoTime();
+        View[] plainRows = new View[CAROUSEL_COUNT];
+        for (int i = 0; i < CAROUSEL_COUNT; i++) {
+            plainRows[i] = inflater.inflate(R.layout.item_carousel_plain, view, false);
+        }
+        final long plainElapsedTime = System.nanoTime() - startTime;
+        runtime.gc();
+        final long plainHeap = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+        //noinspection UnusedAssignment
+        plainRows = null;
+
+        // 预先创建所有的行并放入回收池中，统计每一行的创建耗时与所占的内存
+        runtime.gc();
+        heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        startTime = System.nanoTime();
+        RecyclerView.RecycledViewPool pool = view.getRecycledViewPool();
+        pool.setMaxRecycledViews(0, CAROUSEL_COUNT);
+        RecyclerView.ViewHolder[] holders = new RecyclerView.ViewHolder[CAROUSEL_COUNT];
+        for (int i = 0; i < CAROUSEL_COUNT; i++) {
+            holders[i] = adapter.createViewHolder(view, 0);
+        }
+        final long elapsedTime = System.nanoTime() - startTime;
+        runtime.gc();
+        final long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        for (RecyclerView.ViewHolder holder : holders) {
+            pool.putRecycledView(holder);
+        }
+        view.setAdapter(adapter);
+
+        TextView resultText = findViewById(R.id.text_benchmark_result);
+        resultText.setText(CAROUSEL_COUNT + " carousels, HorizontalOverScrollView vs HorizontalScrollView\n"
+                + "inflation: " + elapsedTime / CAROUSEL_COUNT / 1000
+                + " vs " + plainElapsedTime / CAROUSEL_COUNT / 1000 + " μs/row\n"
+                + "java heap: " + (heapAfter - heapBefore) / CAROUSEL_COUNT / 1024
+                + " vs " + plainHeap / CAROUSEL_COUNT / 1024 + " KB/row");
+    }
+
+    private static class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.ViewHolder> {
+        private static final int[] sColors = {
+                0xFFFFA500, 0xFFFF0000, 0xFFFF4081, 0xFF3F51B5,
+                0xFF303F9F, 0xFF00BFFF, 0xFF4CAF50, 0xFF9C27B0
+        };
+
+        @NonNull
+        @Override
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new ViewHolder(LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_carousel, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            for (int i = 0; i < holder.mCards.getChildCount(); i++) {
+                TextView card = (TextView) holder.mCards.getChildAt(i);
+                card.setBackgroundColor(sColors[(position + i) % sColors.length]);
+                card.setText(position + "-" + i);
+            }
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull ViewHolder holder) {
+            // 行在脱离窗口时已自动重置，这里确保未脱离窗口便被复用的行同样不会带着回弹的状态
+            holder.mCarousel.resetOverScroll();
+        }
+
+        @Override
+        public int getItemCount() {
+            return CAROUSEL_COUNT;
+        }
+
+        static class ViewHolder extends RecyclerView.ViewHolder {
+            final HorizontalOverScrollView mCarousel;
+            final ViewGroup mCards;
+
+            ViewHolder(View itemView) {
+                super(itemView);
+                mCarousel = (HorizontalOverScrollView) itemView;
+                mCards = (ViewGroup) mCarousel.getChildAt(0);
+            }
+        }
+    }
+}
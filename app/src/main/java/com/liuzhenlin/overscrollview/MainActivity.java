@@ -14,6 +14,7 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
         findViewById(R.id.button_swipe_menu_recycler).setOnClickListener(this);
         findViewById(R.id.button_overscroll).setOnClickListener(this);
         findViewById(R.id.button_horizontal_overscroll).setOnClickListener(this);
+        findViewById(R.id.button_carousel_benchmark).setOnClickListener(this);
     }
 
     @Override
@@ -29,6 +30,9 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
             case R.id.button_horizontal_overscroll:
                 it.setClassName(getPackageName(), HorizontalOverScrollActivity.class.getName());
                 break;
+            case R.id.button_carousel_benchmark:
+                it.setClass(this, CarouselBenchmarkActivity.class);
+                break;
         }
         startActivity(it);
     }
@@ -3,7 +3,7 @@ package com.liuzhenlin.overscroll;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.support.v4.util.ArraySet;
+import android.graphics.Canvas;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.view.ViewPropertyAnimatorListener;
 import android.support.v4.view.ViewPropertyAnimatorUpdateListener;
@@ -13,14 +13,16 @@ import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewGroup;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.widget.HorizontalScrollView;
+import android.widget.OverScroller;
 
 import com.liuzhenlin.overscroll.listener.OverFlyingDetector;
 
 import java.lang.reflect.Field;
-import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static android.os.Build.VERSION.SDK_INT;
 import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR1;
@@ -65,13 +67,30 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
 
     private float mOverScrollDist;
 
-    private final OverFlyingDetector mOverflyingDetector;
+    /** 在第一次触摸时才创建，以免列表中大量未被触摸过的本View各自持有一份 */
+    private OverFlyingDetector mOverflyingDetector;
 
     private static final int DURATION_SPRING_BACK = 250;
 
-    private final Interpolator mInterpolator = new DecelerateInterpolator();
+    /** 无状态，由所有实例共享 */
+    private static final Interpolator sInterpolator = new DecelerateInterpolator();
 
     private boolean mIsAnimRunning;
+
+    /**
+     * 手指抬起时是否将内容对齐到子View的边界
+     * @see #setSnappingEnabled(boolean)
+     */
+    private boolean mIsSnappingEnabled;
+
+    /** 标志本次手指抬起时是否已发生fling（已在其中对齐） */
+    private boolean mFlungOnRelease;
+
+    /** 用于预测fling的终点，与HorizontalScrollView滚动时所用的OverScroller的物理模型一致 */
+    private OverScroller mFlingPredictor;
+
+    /** @see #setDebugOverlayEnabled(boolean) */
+    private OverScrollDebugOverlay mDebugOverlay;
     // @formatter:on
 
     public boolean isOverScrollEnabled() {
@@ -105,6 +124,43 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
         return mOverScrollDist;
     }
 
+    public boolean isSnappingEnabled() {
+        return mIsSnappingEnabled;
+    }
+
+    /**
+     * Sets whether to snap the content to the boundaries of the children of the inner view
+     * (e.g. the cards of a carousel) when the finger is lifted.
+     * <p>
+     * For a fling, the boundary is chosen once at that time, as the one nearest to
+     * the final position predicted from the fling velocity, and the fling is restarted with
+     * the velocity that decelerates onto it, so its speed changes only slightly. A fling
+     * onto the first or last boundary runs on into the edge, where the over-fling bounce
+     * takes over just as it does without snapping.
+     */
+    public void setSnappingEnabled(boolean enabled) {
+        mIsSnappingEnabled = enabled;
+    }
+
+    public boolean isDebugOverlayEnabled() {
+        return mDebugOverlay != null;
+    }
+
+    /**
+     * Sets whether to draw an overlay on top of this view that plots the live over-scroll
+     * distance, finger velocity, resistance factor and frame durations, for debugging only.
+     */
+    public void setDebugOverlayEnabled(boolean enabled) {
+        if (enabled == (mDebugOverlay != null)) return;
+        if (enabled) {
+            mDebugOverlay = new OverScrollDebugOverlay(this);
+        } else {
+            mDebugOverlay.release();
+            mDebugOverlay = null;
+        }
+        invalidate();
+    }
+
     public HorizontalOverScrollView(Context context) {
         this(context, null);
     }
@@ -115,12 +171,18 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
 
     public HorizontalOverScrollView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.HorizontalOverScrollView, defStyleAttr, 0);
-        setOverScrollEnabled(a.getBoolean(R.styleable
-                .HorizontalOverScrollView_overscrollEnabled, true));
-        a.recycle();
+        if (attrs == null && defStyleAttr == 0) {
+            // 在代码中创建时，没有需要解析的属性
+            setOverScrollEnabled(true);
+        } else {
+            TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.HorizontalOverScrollView, defStyleAttr, 0);
+            setOverScrollEnabled(a.getBoolean(R.styleable
+                    .HorizontalOverScrollView_overscrollEnabled, true));
+            setSnappingEnabled(a.getBoolean(R.styleable
+                    .HorizontalOverScrollView_snappingEnabled, false));
+            a.recycle();
+        }
 
-        mOverflyingDetector = new OverFlyingDetector();
         mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
         if (DEBUG)
             addOnOverScrollListener(new OnOverScrollListener() {
@@ -172,6 +234,53 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
         mInnerView = null;
     }
 
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (mDebugOverlay != null)
+            mDebugOverlay.onLayout(isOverScrolling());
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // 被移出窗口（如在RecyclerView中被回收）时，不把回弹到一半的状态带到下次使用的地方
+        resetOverScroll();
+    }
+
+    /**
+     * Stops any over-scroll immediately, moving the content back to its rest position
+     * without animation and notifying the listeners of the end of the over-scroll.
+     * This is called automatically when this view is detached from its window, and
+     * can also be called when the view is rebound to other data, e.g. in
+     * {@link android.support.v7.widget.RecyclerView.Adapter#onViewRecycled}.
+     */
+    public void resetOverScroll() {
+        if (mOverflyingDetector != null)
+            mOverflyingDetector.cancel();
+        recycleVelocityTracker();
+        mActivePointerId = INVALID_POINTER;
+        if (mInnerView == null) return;
+
+        if (mIsAnimRunning) {
+            // 先移除监听，以免取消动画时又开始回弹
+            ViewCompat.animate(mInnerView).setListener(null).setUpdateListener(null).cancel();
+            mIsAnimRunning = false;
+        }
+        if (mInnerView.getTranslationX() != 0f) {
+            mInnerView.setTranslationX(0f);
+            deliverOverScrollDistanceChangeIfNeeded();
+        }
+        endOverScroll();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        super.draw(canvas);
+        if (mDebugOverlay != null)
+            mDebugOverlay.draw(canvas, mOverScrollDist, mOverScrollState, mOverScrollEdge);
+    }
+
     protected final boolean isLayoutRtl() {
         return SDK_INT >= JELLY_BEAN_MR1 && (getLayoutDirection() == LAYOUT_DIRECTION_RTL);
     }
@@ -202,8 +311,10 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
                 mActivePointerId = INVALID_POINTER;
                 break;
         }
+        if (mDebugOverlay != null)
+            mDebugOverlay.onTouchEvent(ev);
         if (mIsOverScrollEnabled && mInnerView != null)
-            mOverflyingDetector.onTouchEvent(ev);
+            getOverFlyingDetector().onTouchEvent(ev);
         return super.dispatchTouchEvent(ev);
     }
 
@@ -230,7 +341,121 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
     @SuppressLint("ClickableViewAccessibility")
     @Override
     public boolean onTouchEvent(MotionEvent ev) {
-        return handleOverScroll(ev) || super.onTouchEvent(ev);
+        final int action = ev.getAction() & MotionEvent.ACTION_MASK;
+        final boolean released = action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL;
+        final boolean wasOverScrolling = isOverScrolling();
+        mFlungOnRelease = false;
+
+        final boolean handled = handleOverScroll(ev) || super.onTouchEvent(ev);
+
+        // 未发生fling时，将内容平滑滚动到离当前位置最近的子View的边界
+        if (released && mIsSnappingEnabled && !mFlungOnRelease && !wasOverScrolling) {
+            final int target = findSnapScrollX(getScrollX());
+            if (target != getScrollX())
+                smoothScrollTo(target, getScrollY());
+        }
+        return handled;
+    }
+
+    @Override
+    public void fling(int velocityX) {
+        mFlungOnRelease = true;
+        if (!mIsSnappingEnabled || mInnerView == null || isOverScrolling()) {
+            super.fling(velocityX);
+            return;
+        }
+
+        // 在fling开始时预测其终点，只计算一次
+        if (mFlingPredictor == null)
+            mFlingPredictor = new OverScroller(getContext());
+        final int scrollX = getScrollX();
+        final int finalX = scrollX + predictFlingDistance(scrollX, velocityX);
+
+        // 会越过两端时照常fling，到达边界后由OverFlyingDetector接着回弹
+        final int range = getScrollRange();
+        if (finalX <= 0 || finalX >= range) {
+            super.fling(velocityX);
+            return;
+        }
+        final int target = findSnapScrollX(finalX);
+        if (target == scrollX) return;
+        // 目标在fling的反方向上（fling的距离很短时），直接平滑滚动过去
+        if ((target > scrollX) != (velocityX > 0)) {
+            smoothScrollTo(target, getScrollY());
+            return;
+        }
+        // 以恰好能到达目标的速度重新fling，使速度连续变化
+        final int velocity = computeFlingVelocityReaching(scrollX, velocityX, target);
+        if (target == 0 || target == range) {
+            // 对齐到首尾的子View时，fling照常进入边界，之后同样由OverFlyingDetector回弹
+            super.fling(velocity);
+        } else if (!retargetFling(scrollX, velocity, target)) {
+            smoothScrollTo(target, getScrollY());
+        }
+    }
+
+    /**
+     * @return the smallest velocity in the direction of the given one, with which a fling
+     * from the given scroll x comes to rest at or just past the given target.
+     */
+    private int computeFlingVelocityReaching(int scrollX, int velocityX, int targetX) {
+        final int sign = velocityX > 0 ? 1 : -1;
+        int low = 0;
+        int high = Math.abs(velocityX);
+        // 先找到一个足以到达目标的速度，再在其下二分查找
+        while (predictFlingDistance(scrollX, sign * high) * sign < (targetX - scrollX) * sign) {
+            low = high;
+            high <<= 1;
+        }
+        while (high - low > 1) {
+            final int mid = (low + high) >>> 1;
+            if (predictFlingDistance(scrollX, sign * mid) * sign < (targetX - scrollX) * sign)
+                low = mid;
+            else
+                high = mid;
+        }
+        return sign * high;
+    }
+
+    private int predictFlingDistance(int scrollX, int velocityX) {
+        mFlingPredictor.fling(scrollX, 0, velocityX, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0);
+        final int distance = mFlingPredictor.getFinalX() - scrollX;
+        mFlingPredictor.abortAnimation();
+        return distance;
+    }
+
+    private int getScrollRange() {
+        if (mInnerView == null) return 0;
+        return Math.max(0, mInnerView.getWidth() - (getWidth() - getPaddingLeft() - getPaddingRight()));
+    }
+
+    /**
+     * @return the scroll x of the child boundary nearest to the given scroll x, which aligns
+     * the start edge of a child with the start edge of this view's content area.
+     */
+    private int findSnapScrollX(int scrollX) {
+        final int range = getScrollRange();
+        if (!(mInnerView instanceof ViewGroup))
+            return Math.max(0, Math.min(scrollX, range));
+
+        final ViewGroup inner = (ViewGroup) mInnerView;
+        final boolean rtl = isLayoutRtl();
+        int target = scrollX;
+        int minDistance = Integer.MAX_VALUE;
+        for (int i = inner.getChildCount() - 1; i >= 0; i--) {
+            View child = inner.getChildAt(i);
+            if (child.getVisibility() == GONE) continue;
+
+            int x = rtl ? inner.getLeft() + child.getRight() - (getWidth() - getPaddingRight())
+                    : inner.getLeft() + child.getLeft() - getPaddingLeft();
+            x = Math.max(0, Math.min(x, range));
+            final int distance = Math.abs(x - scrollX);
+            if (distance < minDistance) {
+                minDistance = distance;
+                target = x;
+            }
+        }
+        return target;
     }
 
     private void initVelocityTracker() {
@@ -330,7 +555,7 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
                 final float velocityX = mVelocityTracker.getXVelocity(mActivePointerId);
                 recycleVelocityTracker();
 
-                if (Math.abs(velocityX) >= mOverflyingDetector.getOverFlyingMinimumVelocity())
+                if (Math.abs(velocityX) >= getOverFlyingDetector().getOverFlyingMinimumVelocity())
                     break;
             case MotionEvent.ACTION_CANCEL:
                 if (mOverScrollState == OVERSCROLL_STATE_TOUCH_SCROLL)
@@ -355,13 +580,18 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
         final float deltaX = mTouchX[mTouchX.length - 1] - mTouchX[mTouchX.length - 2];
         final float transX = mInnerView.getTranslationX();
         // 向右拉时手指向左滑             // 向左拉时手指向右滑
-        if (transX > 0f && deltaX < 0f || transX < 0f && deltaX > 0f)
+        if (transX > 0f && deltaX < 0f || transX < 0f && deltaX > 0f) {
+            if (mDebugOverlay != null)
+                mDebugOverlay.setResistance(1f);
             return deltaX;
-        else {
+        } else {
             MarginLayoutParams mlp = (MarginLayoutParams) mInnerView.getLayoutParams();
             final float ratio = Math.abs(mInnerView.getTranslationX()) /
                     ((getWidth() - getPaddingLeft() - getPaddingRight() - mlp.leftMargin - mlp.rightMargin) * 0.95f);
-            return (float) (1d / (2d + Math.tan(Math.PI / 2d * ratio)) * deltaX);
+            final double resistance = 1d / (2d + Math.tan(Math.PI / 2d * ratio));
+            if (mDebugOverlay != null)
+                mDebugOverlay.setResistance((float) resistance);
+            return (float) (resistance * deltaX);
         }
     }
 
@@ -382,9 +612,11 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
             mOverScrollEdge = dx < 0 ? OVERSCROLL_EDGE_START : OVERSCROLL_EDGE_END;
         else
             mOverScrollEdge = dx > 0 ? OVERSCROLL_EDGE_START : OVERSCROLL_EDGE_END;
+        if (toTransX == 0f && mPropertyBinder != null)
+            mPropertyBinder.animateToStart(duration, sInterpolator);
         ViewCompat.animate(mInnerView).translationX(toTransX)
                 .setDuration(duration)
-                .setInterpolator(mInterpolator)
+                .setInterpolator(sInterpolator)
                 .setListener(this).setUpdateListener(this).start();
     }
 
@@ -438,6 +670,12 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
     public void onBottomEdgeOverFling(float overHeight, int duration) {
     }
 
+    private OverFlyingDetector getOverFlyingDetector() {
+        if (mOverflyingDetector == null)
+            mOverflyingDetector = new OverFlyingDetector();
+        return mOverflyingDetector;
+    }
+
     protected class OverFlyingDetector extends com.liuzhenlin.overscroll.listener.OverFlyingDetector {
         public OverFlyingDetector() {
             super(HorizontalOverScrollView.this, HorizontalOverScrollView.this);
@@ -460,16 +698,16 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
 
     private void deliverOverScrollStartEventIfNeeded(int edge) {
         if (!isOverScrolling() && mOnOverScrollListeners != null)
-            for (OnOverScrollListener listener : mOnOverScrollListeners)
-                listener.onOverScrollStart(this, edge);
+            mOnOverScrollListeners.dispatchOverScrollStart(edge);
     }
 
     private void deliverOverScrollStateChangeIfNeeded(int state) {
         if (mOverScrollState != state) {
             mOverScrollState = state;
+            if (mPropertyBinder != null)
+                mPropertyBinder.onOverScrollStateChanged(state);
             if (mOnOverScrollListeners != null)
-                for (OnOverScrollListener listener : mOnOverScrollListeners)
-                    listener.onOverScrollStateChange(this, mOverScrollState);
+                mOnOverScrollListeners.dispatchOverScrollStateChange(mOverScrollState);
         }
     }
 
@@ -478,29 +716,48 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
         final float dist = mOverScrollEdge == OVERSCROLL_EDGE_START_OR_END ? transX : Math.abs(transX);
         if (mOverScrollDist != dist) {
             mOverScrollDist = dist;
+            if (mDebugOverlay != null)
+                mDebugOverlay.invalidate();
+            if (mPropertyBinder != null)
+                mPropertyBinder.onOverScrollOffsetChanged(false, isLayoutRtl() ? -transX : transX);
             if (mOnOverScrollListeners != null)
-                for (OnOverScrollListener listener : mOnOverScrollListeners)
-                    listener.onOverScrollDistanceChange(this, mOverScrollDist);
+                mOnOverScrollListeners.dispatchOverScrollDistanceChange(mOverScrollDist);
         }
     }
 
     private void deliverOverScrollEndEventIfNeeded(int edge) {
         if (isOverScrolling() && mOnOverScrollListeners != null)
-            for (OnOverScrollListener listener : mOnOverScrollListeners)
-                listener.onOverScrollEnd(this, edge);
+            mOnOverScrollListeners.dispatchOverScrollEnd(edge);
     }
 
-    private Set<OnOverScrollListener> mOnOverScrollListeners;
+    private OverScrollListenerRegistry mOnOverScrollListeners;
 
     public void addOnOverScrollListener(OnOverScrollListener listener) {
+        addOnOverScrollListener(listener, DELIVERY_MODE_IMMEDIATE);
+    }
+
+    /**
+     * Adds a listener whose events will be delivered in the given {@link DeliveryMode mode}.
+     */
+    public void addOnOverScrollListener(OnOverScrollListener listener, @DeliveryMode int deliveryMode) {
+        if (mOnOverScrollListeners == null)
+            mOnOverScrollListeners = new OverScrollListenerRegistry(this);
+        mOnOverScrollListeners.add(listener, deliveryMode, null);
+    }
+
+    /**
+     * Adds a listener whose events will be delivered on the given executor, with the
+     * consecutive distance changes coalesced to the latest one, for heavy consumers.
+     */
+    public void addOnOverScrollListener(OnOverScrollListener listener, Executor executor) {
         if (mOnOverScrollListeners == null)
-            mOnOverScrollListeners = new ArraySet<>();
-        mOnOverScrollListeners.add(listener);
+            mOnOverScrollListeners = new OverScrollListenerRegistry(this);
+        mOnOverScrollListeners.add(listener, DELIVERY_MODE_IMMEDIATE, executor);
     }
 
     public void removeOnOverScrollListener(OnOverScrollListener listener) {
         if (mOnOverScrollListeners != null)
-            mOnOverScrollListeners.add(listener);
+            mOnOverScrollListeners.remove(listener);
     }
 
     public void clearOnOverScrollListeners() {
@@ -508,11 +765,65 @@ public class HorizontalOverScrollView extends HorizontalScrollView implements Ov
             mOnOverScrollListeners.clear();
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // OverScroll Property Bindings
+    ///////////////////////////////////////////////////////////////////////////
+
+    private OverScrollPropertyBinder mPropertyBinder;
+
+    /**
+     * Binds a render property of another view to the over-scroll fraction of an edge of
+     * this view. All the bindings are applied in one batched pass per frame.
+     */
+    public void addOverScrollPropertyBinding(OverScrollPropertyBinding binding) {
+        if (mPropertyBinder == null)
+            mPropertyBinder = new OverScrollPropertyBinder(this);
+        mPropertyBinder.add(binding);
+    }
+
+    public void removeOverScrollPropertyBinding(OverScrollPropertyBinding binding) {
+        if (mPropertyBinder != null)
+            mPropertyBinder.remove(binding);
+    }
+
+    public void clearOverScrollPropertyBindings() {
+        if (mPropertyBinder != null)
+            mPropertyBinder.clear();
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // reflection methods
     ///////////////////////////////////////////////////////////////////////////
 
     private Field mLastMotionXField;
+    private Field mScrollerField;
+
+    /**
+     * Restarts the fling of {@link HorizontalScrollView#mScroller} with the given velocity,
+     * bounded at the given target, so that the content decelerates onto it without
+     * correcting the scroll position on every frame.
+     *
+     * @return true if the scroller has been retargeted
+     */
+    private boolean retargetFling(int startX, int velocityX, int targetX) {
+        try {
+            if (mScrollerField == null) {
+                // noinspection JavaReflectionMemberAccess
+                mScrollerField = HorizontalScrollView.class.getDeclaredField("mScroller");
+                mScrollerField.setAccessible(true);
+            }
+            final OverScroller scroller = (OverScroller) mScrollerField.get(this);
+            scroller.abortAnimation();
+            // 该速度下fling的终点恰好在目标处或稍越过目标，以目标为界即停在目标处
+            scroller.fling(startX, getScrollY(), velocityX, 0,
+                    velocityX > 0 ? startX : targetX, velocityX > 0 ? targetX : startX, 0, 0);
+            ViewCompat.postInvalidateOnAnimation(this);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
     /**
      * Refresh the cached touch X {@link HorizontalScrollView#mLastMotionX}
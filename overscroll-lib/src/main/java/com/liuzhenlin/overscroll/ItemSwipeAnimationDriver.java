@@ -0,0 +1,202 @@
+package com.liuzhenlin.overscroll;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.widget.OverScroller;
+
+/**
+ * Drives the smooth scrolls of all the {@link SmoothScrollableLinearLayout}s of a host view
+ * from a single animation callback per frame, with a table of the rows being animated and
+ * the {@link OverScroller}s pooled for them, so that any number of item menus opening or
+ * closing at once only cost one callback per frame and no row keeps scrolling after
+ * being detached.
+ */
+final class ItemSwipeAnimationDriver implements Runnable {
+    // @formatter:off
+    private final View mHost;
+    private final Context mContext;
+
+    /** 正在执行动画的itemView与其对应的OverScroller，下标一一对应 */
+    private SmoothScrollableLinearLayout[] mRows = new SmoothScrollableLinearLayout[4];
+    private OverScroller[] mScrollers = new OverScroller[4];
+    private int mCount;
+
+    /** 已回收的OverScroller，可在下一次动画时重用 */
+    private OverScroller[] mScrollerPool = new OverScroller[4];
+    private int mPoolSize;
+
+    private boolean mScheduled;
+
+    private Callback mCallback;
+    // @formatter:on
+
+    ItemSwipeAnimationDriver(@NonNull View host) {
+        mHost = host;
+        mContext = host.getContext();
+    }
+
+    /**
+     * Starts animating the given row from the start position by the given deltas,
+     * replacing any animation it has already been running. The x coordinates are
+     * the swipe offsets of the row and the y coordinates are its scroll positions across
+     * its orientation.
+     *
+     * @see OverScroller#startScroll(int, int, int, int, int)
+     */
+    void start(@NonNull SmoothScrollableLinearLayout row,
+               int startX, int startY, int dx, int dy, int duration) {
+        int index = indexOf(row);
+        if (index < 0) {
+            if (mCount == mRows.length) {
+                SmoothScrollableLinearLayout[] rows = new SmoothScrollableLinearLayout[mCount * 2];
+                OverScroller[] scrollers = new OverScroller[mCount * 2];
+                System.arraycopy(mRows, 0, rows, 0, mCount);
+                System.arraycopy(mScrollers, 0, scrollers, 0, mCount);
+                mRows = rows;
+                mScrollers = scrollers;
+            }
+            index = mCount++;
+            mRows[index] = row;
+            mScrollers[index] = obtainScroller();
+        }
+        mScrollers[index].startScroll(startX, startY, dx, dy, duration);
+        if (index == 0 && mCount == 1 && mCallback != null)
+            mCallback.onSwipeAnimationsStart();
+
+        if (!mScheduled) {
+            mScheduled = true;
+            ViewCompat.postOnAnimation(mHost, this);
+        }
+    }
+
+    void setCallback(Callback callback) {
+        mCallback = callback;
+    }
+
+    boolean isAnimating(@NonNull SmoothScrollableLinearLayout row) {
+        return indexOf(row) >= 0;
+    }
+
+    boolean isAnimating() {
+        return mCount > 0;
+    }
+
+    /**
+     * @return the final horizontal position of the animation of the given row,
+     * or its current swipe offset if it is not being animated.
+     */
+    int getFinalX(@NonNull SmoothScrollableLinearLayout row) {
+        final int index = indexOf(row);
+        return index < 0 ? row.getSwipeOffset() : mScrollers[index].getFinalX();
+    }
+
+    int getFinalY(@NonNull SmoothScrollableLinearLayout row) {
+        final int index = indexOf(row);
+        return index < 0 ? row.getCrossScroll() : mScrollers[index].getFinalY();
+    }
+
+    /**
+     * Stops the animation of the given row, moving it to the final position of the animation
+     * at once, so that it will not be left half open when it is detached or recycled.
+     */
+    void finish(@NonNull SmoothScrollableLinearLayout row) {
+        final int index = indexOf(row);
+        if (index >= 0) {
+            final OverScroller scroller = mScrollers[index];
+            removeAt(index);
+            row.onSwipeAnimationFrame(scroller.getFinalX(), scroller.getFinalY());
+            if (mCallback != null)
+                mCallback.onSwipeAnimationEnd(row);
+        }
+    }
+
+    /**
+     * Stops the animations of all the rows, moving each of them to its final position.
+     */
+    void finishAll() {
+        while (mCount > 0) {
+            final SmoothScrollableLinearLayout row = mRows[mCount - 1];
+            final OverScroller scroller = mScrollers[mCount - 1];
+            removeAt(mCount - 1);
+            row.onSwipeAnimationFrame(scroller.getFinalX(), scroller.getFinalY());
+            if (mCallback != null)
+                mCallback.onSwipeAnimationEnd(row);
+        }
+        if (mScheduled) {
+            mScheduled = false;
+            mHost.removeCallbacks(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        mScheduled = false;
+        // 倒序遍历，以便在遍历过程中移除已结束的动画
+        for (int i = mCount - 1; i >= 0; i--) {
+            // 上一个itemView的回调中可能已移除了多个动画
+            if (i >= mCount) continue;
+
+            final SmoothScrollableLinearLayout row = mRows[i];
+            final OverScroller scroller = mScrollers[i];
+            final boolean more = scroller.computeScrollOffset();
+            if (!more)
+                removeAt(i);
+            row.onSwipeAnimationFrame(scroller.getCurrX(), scroller.getCurrY());
+            if (!more && mCallback != null)
+                mCallback.onSwipeAnimationEnd(row);
+        }
+        if (mCount > 0 && !mScheduled) {
+            mScheduled = true;
+            ViewCompat.postOnAnimation(mHost, this);
+        }
+    }
+
+    private int indexOf(SmoothScrollableLinearLayout row) {
+        for (int i = 0; i < mCount; i++)
+            if (mRows[i] == row)
+                return i;
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        recycleScroller(mScrollers[index]);
+        final int last = --mCount;
+        mRows[index] = mRows[last];
+        mScrollers[index] = mScrollers[last];
+        mRows[last] = null;
+        mScrollers[last] = null;
+    }
+
+    private OverScroller obtainScroller() {
+        if (mPoolSize > 0) {
+            final OverScroller scroller = mScrollerPool[--mPoolSize];
+            mScrollerPool[mPoolSize] = null;
+            return scroller;
+        }
+        return new OverScroller(mContext);
+    }
+
+    private void recycleScroller(OverScroller scroller) {
+        if (mPoolSize == mScrollerPool.length) {
+            OverScroller[] pool = new OverScroller[mPoolSize * 2];
+            System.arraycopy(mScrollerPool, 0, pool, 0, mPoolSize);
+            mScrollerPool = pool;
+        }
+        mScrollerPool[mPoolSize++] = scroller;
+    }
+
+    interface Callback {
+        /**
+         * Called when a row starts to be animated while no other rows are being animated.
+         */
+        void onSwipeAnimationsStart();
+
+        /**
+         * Called when the animation of the given row ends or is finished,
+         * after the row has been moved to the final position.
+         */
+        void onSwipeAnimationEnd(SmoothScrollableLinearLayout row);
+    }
+}
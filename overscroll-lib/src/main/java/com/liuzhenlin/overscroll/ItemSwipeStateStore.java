@@ -0,0 +1,172 @@
+package com.liuzhenlin.overscroll;
+
+/**
+ * The swipe offsets of the itemViews of a {@link SwipeMenuRecyclerView}, keyed by the stable IDs
+ * of the items, or by their adapter positions when the adapter has no stable IDs.
+ * <p>
+ * This is an open-addressing hash map of primitive longs to ints with linear probing, so that
+ * looking up the offset of an item when it is bound costs O(1) without boxing, and no views
+ * are held. Only the items with non-zero offsets are stored, which are usually very few.
+ */
+final class ItemSwipeStateStore {
+    // @formatter:off
+    private static final int INITIAL_CAPACITY = 8; // 必须为2的幂
+
+    private long[] mKeys = new long[INITIAL_CAPACITY];
+    /** 值为0表示对应的槽位为空，因为不存储为0的偏移量 */
+    private int[] mValues = new int[INITIAL_CAPACITY];
+
+    private int mSize;
+    // @formatter:on
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @return the swipe offset of the item with the given key, or 0 if it is not swiped
+     */
+    int get(long key) {
+        final int mask = mKeys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (mValues[i] == 0) return 0;
+            if (mKeys[i] == key) return mValues[i];
+        }
+    }
+
+    /**
+     * Sets the swipe offset of the item with the given key, removing it if the offset is 0.
+     */
+    void put(long key, int offset) {
+        if (offset == 0) {
+            remove(key);
+            return;
+        }
+        final int mask = mKeys.length - 1;
+        int i = hash(key) & mask;
+        for (; mValues[i] != 0; i = (i + 1) & mask) {
+            if (mKeys[i] == key) {
+                mValues[i] = offset;
+                return;
+            }
+        }
+        mKeys[i] = key;
+        mValues[i] = offset;
+        // 保持装载因子不超过1/2
+        if (++mSize > mKeys.length >> 1)
+            resize(mKeys.length << 1);
+    }
+
+    void remove(long key) {
+        final int mask = mKeys.length - 1;
+        int i = hash(key) & mask;
+        for (; ; i = (i + 1) & mask) {
+            if (mValues[i] == 0) return;
+            if (mKeys[i] == key) break;
+        }
+        mValues[i] = 0;
+        mSize--;
+        // 将之后同一探测序列上的条目前移，以免查找时提前遇到空槽位
+        for (int j = (i + 1) & mask; mValues[j] != 0; j = (j + 1) & mask) {
+            final int home = hash(mKeys[j]) & mask;
+            // 当home不在(i, j]之间时，条目j可以移到空槽位i
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                mKeys[i] = mKeys[j];
+                mValues[i] = mValues[j];
+                mValues[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    void clear() {
+        if (mSize == 0) return;
+        if (mKeys.length > INITIAL_CAPACITY) {
+            mKeys = new long[INITIAL_CAPACITY];
+            mValues = new int[INITIAL_CAPACITY];
+        } else {
+            for (int i = 0; i < mValues.length; i++)
+                mValues[i] = 0;
+        }
+        mSize = 0;
+    }
+
+    /**
+     * @return the key at the given index if the slot at that index is in use,
+     * to be used along with {@link #valueAt(int)} to iterate over the entries.
+     * @see #capacity()
+     */
+    long keyAt(int index) {
+        return mKeys[index];
+    }
+
+    /**
+     * @return the offset at the given index, or 0 if the slot at that index is empty
+     */
+    int valueAt(int index) {
+        return mValues[index];
+    }
+
+    int capacity() {
+        return mKeys.length;
+    }
+
+    /**
+     * Updates the keys of the entries after a range of items are inserted into or removed from
+     * the adapter, in the case that the adapter positions of the items are used as the keys.
+     *
+     * @param start the adapter position of the first item inserted or removed
+     * @param delta the number of items inserted, or the negative number of items removed
+     */
+    void offsetPositions(long start, int delta) {
+        if (mSize == 0) return;
+        final long[] keys = mKeys;
+        final int[] values = mValues;
+        mKeys = new long[keys.length];
+        mValues = new int[keys.length];
+        mSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] == 0) continue;
+            long key = keys[i];
+            if (key >= start) {
+                // 被移除的item不再保留
+                if (delta < 0 && key < start - delta) continue;
+                key += delta;
+            }
+            put(key, values[i]);
+        }
+    }
+
+    /**
+     * Updates the keys of the entries after an item is moved in the adapter, in the case that
+     * the adapter positions of the items are used as the keys.
+     */
+    void movePosition(long from, long to) {
+        if (mSize == 0 || from == to) return;
+        final int offset = get(from);
+        offsetPositions(from, -1);
+        offsetPositions(to, 1);
+        put(to, offset);
+    }
+
+    private void resize(int capacity) {
+        final long[] keys = mKeys;
+        final int[] values = mValues;
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        mSize = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (values[i] != 0)
+                put(keys[i], values[i]);
+    }
+
+    private static int hash(long key) {
+        // 混合高低位，使连续的位置或ID也能均匀分布
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
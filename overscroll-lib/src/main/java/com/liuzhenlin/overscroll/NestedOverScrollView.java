@@ -3,7 +3,8 @@ package com.liuzhenlin.overscroll;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.support.v4.util.ArraySet;
+import android.graphics.Canvas;
+import android.support.annotation.Nullable;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.view.ViewPropertyAnimatorListener;
 import android.support.v4.view.ViewPropertyAnimatorUpdateListener;
@@ -14,14 +15,20 @@ import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 
 import com.liuzhenlin.overscroll.listener.OverFlyingDetector;
 
 import java.lang.reflect.Field;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
 
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR2;
 import static android.support.v4.widget.ViewDragHelper.INVALID_POINTER;
 
 /**
@@ -69,6 +76,22 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
     private final Interpolator mInterpolator = new DecelerateInterpolator();
 
     private boolean mIsAnimRunning;
+
+    /**
+     * 顶部过度滚动时随之放大以填满露出的空白区域的头部View
+     * @see #setZoomHeader(View)
+     */
+    private View mZoomHeader;
+    private int mZoomHeaderId = NO_ID;
+
+    /** 头部View正随着回弹动画缩小至原来的大小 */
+    private boolean mIsZoomHeaderAnimRunning;
+
+    /** 为使放大的头部View能绘制在空白区域上而被取消裁剪子View的头部View的祖先，更换头部View时恢复 */
+    private final List<ViewGroup> mZoomHeaderUnclippedAncestors = new ArrayList<>();
+
+    /** @see #setDebugOverlayEnabled(boolean) */
+    private OverScrollDebugOverlay mDebugOverlay;
     // @formatter:on
 
     public boolean isOverScrollEnabled() {
@@ -102,6 +125,25 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
         return mOverScrollDist;
     }
 
+    public boolean isDebugOverlayEnabled() {
+        return mDebugOverlay != null;
+    }
+
+    /**
+     * Sets whether to draw an overlay on top of this view that plots the live over-scroll
+     * distance, finger velocity, resistance factor and frame durations, for debugging only.
+     */
+    public void setDebugOverlayEnabled(boolean enabled) {
+        if (enabled == (mDebugOverlay != null)) return;
+        if (enabled) {
+            mDebugOverlay = new OverScrollDebugOverlay(this);
+        } else {
+            mDebugOverlay.release();
+            mDebugOverlay = null;
+        }
+        invalidate();
+    }
+
     public NestedOverScrollView(Context context) {
         this(context, null);
     }
@@ -115,6 +157,7 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
         TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.NestedOverScrollView, defStyleAttr, 0);
         setOverScrollEnabled(a.getBoolean(R.styleable
                 .NestedOverScrollView_overscrollEnabled, true));
+        mZoomHeaderId = a.getResourceId(R.styleable.NestedOverScrollView_zoomHeader, NO_ID);
         a.recycle();
 
         mOverflyingDetector = new OverFlyingDetector();
@@ -155,6 +198,67 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
         super.onFinishInflate();
         if (getChildCount() == 1)
             mInnerView = getChildAt(0);
+        if (mZoomHeaderId != NO_ID)
+            setZoomHeader(findViewById(mZoomHeaderId));
+    }
+
+    @Nullable
+    public View getZoomHeader() {
+        return mZoomHeader;
+    }
+
+    /**
+     * Sets a descendant of this view, usually the header image at the top of the content,
+     * to be enlarged to fill the gap revealed as the content is pulled down at the top.
+     * <p>
+     * The header is scaled about its bottom center through its scale properties only, so that
+     * it never causes a layout, and it shrinks back together with the spring-back of
+     * the content in an animation with the same duration and interpolator. The ancestors of
+     * the header inside this view stop clipping their children, so that the enlarged
+     * header can be drawn over the gap; they clip them again once the header is replaced
+     * or cleared.
+     */
+    public void setZoomHeader(@Nullable View header) {
+        if (mZoomHeader == header) return;
+        if (mZoomHeader != null) {
+            ViewCompat.animate(mZoomHeader).cancel();
+            mZoomHeader.setScaleX(1f);
+            mZoomHeader.setScaleY(1f);
+            for (int i = mZoomHeaderUnclippedAncestors.size() - 1; i >= 0; i--) {
+                mZoomHeaderUnclippedAncestors.get(i).setClipChildren(true);
+            }
+            mZoomHeaderUnclippedAncestors.clear();
+        }
+        mZoomHeader = header;
+        mIsZoomHeaderAnimRunning = false;
+        if (header != null) {
+            for (ViewParent parent = header.getParent();
+                 parent instanceof ViewGroup && parent != this; parent = parent.getParent()) {
+                ViewGroup ancestor = (ViewGroup) parent;
+                // 只记录原本裁剪子View的祖先，API 18以下无法获取该属性，视其为默认的裁剪
+                if (SDK_INT < JELLY_BEAN_MR2 || ancestor.getClipChildren()) {
+                    ancestor.setClipChildren(false);
+                    mZoomHeaderUnclippedAncestors.add(ancestor);
+                }
+            }
+            applyZoomHeaderScale();
+        }
+    }
+
+    /**
+     * Scales the zoom header so that its top edge follows the top edge of this view's content
+     * area, as the content is pulled down away from it.
+     */
+    private void applyZoomHeaderScale() {
+        if (mZoomHeader == null || mInnerView == null || mIsZoomHeaderAnimRunning) return;
+        final int height = mZoomHeader.getHeight();
+        if (height == 0) return;
+
+        final float scale = 1f + Math.max(mInnerView.getTranslationY(), 0f) / height;
+        mZoomHeader.setPivotX(mZoomHeader.getWidth() / 2f);
+        mZoomHeader.setPivotY(height);
+        mZoomHeader.setScaleX(scale);
+        mZoomHeader.setScaleY(scale);
     }
 
     @Override
@@ -169,6 +273,20 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
         mInnerView = null;
     }
 
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (mDebugOverlay != null)
+            mDebugOverlay.onLayout(isOverScrolling());
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        super.draw(canvas);
+        if (mDebugOverlay != null)
+            mDebugOverlay.draw(canvas, mOverScrollDist, mOverScrollState, mOverScrollEdge);
+    }
+
     @Override
     public boolean dispatchTouchEvent(MotionEvent ev) {
         switch (ev.getAction() & MotionEvent.ACTION_MASK) {
@@ -195,6 +313,8 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
                 mActivePointerId = INVALID_POINTER;
                 break;
         }
+        if (mDebugOverlay != null)
+            mDebugOverlay.onTouchEvent(ev);
         if (mIsOverScrollEnabled && mInnerView != null)
             mOverflyingDetector.onTouchEvent(ev);
         return super.dispatchTouchEvent(ev);
@@ -352,13 +472,18 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
         final float deltaY = mTouchY[mTouchY.length - 1] - mTouchY[mTouchY.length - 2];
         final float transY = mInnerView.getTranslationY();
         // 向下拉时手指向上滑动           // 向上拉时手指向下滑动
-        if (transY > 0f && deltaY < 0f || transY < 0f && deltaY > 0f)
+        if (transY > 0f && deltaY < 0f || transY < 0f && deltaY > 0f) {
+            if (mDebugOverlay != null)
+                mDebugOverlay.setResistance(1f);
             return deltaY;
-        else {
+        } else {
             MarginLayoutParams mlp = (MarginLayoutParams) mInnerView.getLayoutParams();
             final float ratio = Math.abs(mInnerView.getTranslationY()) /
                     ((getHeight() - getPaddingTop() - getPaddingBottom() - mlp.topMargin - mlp.bottomMargin) * 0.95f);
-            return (float) (1d / (2d + Math.tan(Math.PI / 2d * ratio)) * deltaY);
+            final double resistance = 1d / (2d + Math.tan(Math.PI / 2d * ratio));
+            if (mDebugOverlay != null)
+                mDebugOverlay.setResistance((float) resistance);
+            return (float) (resistance * deltaY);
         }
     }
 
@@ -374,6 +499,17 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
         final float dy = toTransY - transY;
         if (dy == 0) return;
         mOverScrollEdge = dy > 0 ? OVERSCROLL_EDGE_TOP : OVERSCROLL_EDGE_BOTTOM;
+        if (toTransY == 0f && mPropertyBinder != null)
+            mPropertyBinder.animateToStart(duration, mInterpolator);
+        if (toTransY == 0f && mZoomHeader != null && mZoomHeader.getScaleY() != 1f) {
+            // 不设置任何监听，由内容的回弹动画结束时统一处理；
+            // 它与内容的回弹动画的时长与插值器均相同，缩放比例始终与内容的位移相对应
+            mIsZoomHeaderAnimRunning = true;
+            ViewCompat.animate(mZoomHeader).scaleX(1f).scaleY(1f)
+                    .setDuration(duration)
+                    .setInterpolator(mInterpolator)
+                    .start();
+        }
         ViewCompat.animate(mInnerView).translationY(toTransY)
                 .setDuration(duration)
                 .setInterpolator(mInterpolator)
@@ -395,6 +531,7 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
     @Override
     public void onAnimationEnd(View view) {
         mIsAnimRunning = false;
+        mIsZoomHeaderAnimRunning = false;
         smoothSpringBack();
     }
 
@@ -467,16 +604,16 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
 
     private void deliverOverScrollStartEventIfNeeded(int edge) {
         if (!isOverScrolling() && mOnOverScrollListeners != null)
-            for (OnOverScrollListener listener : mOnOverScrollListeners)
-                listener.onOverScrollStart(this, edge);
+            mOnOverScrollListeners.dispatchOverScrollStart(edge);
     }
 
     private void deliverOverScrollStateChangeIfNeeded(int state) {
         if (mOverScrollState != state) {
             mOverScrollState = state;
+            if (mPropertyBinder != null)
+                mPropertyBinder.onOverScrollStateChanged(state);
             if (mOnOverScrollListeners != null)
-                for (OnOverScrollListener listener : mOnOverScrollListeners)
-                    listener.onOverScrollStateChange(this, mOverScrollState);
+                mOnOverScrollListeners.dispatchOverScrollStateChange(mOverScrollState);
         }
     }
 
@@ -485,29 +622,49 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
         final float dist = mOverScrollEdge == OVERSCROLL_EDGE_START_OR_END ? transY : Math.abs(transY);
         if (mOverScrollDist != dist) {
             mOverScrollDist = dist;
+            if (mDebugOverlay != null)
+                mDebugOverlay.invalidate();
+            applyZoomHeaderScale();
+            if (mPropertyBinder != null)
+                mPropertyBinder.onOverScrollOffsetChanged(true, transY);
             if (mOnOverScrollListeners != null)
-                for (OnOverScrollListener listener : mOnOverScrollListeners)
-                    listener.onOverScrollDistanceChange(this, mOverScrollDist);
+                mOnOverScrollListeners.dispatchOverScrollDistanceChange(mOverScrollDist);
         }
     }
 
     private void deliverOverScrollEndEventIfNeeded(int edge) {
         if (isOverScrolling() && mOnOverScrollListeners != null)
-            for (OnOverScrollListener listener : mOnOverScrollListeners)
-                listener.onOverScrollEnd(this, edge);
+            mOnOverScrollListeners.dispatchOverScrollEnd(edge);
     }
 
-    private Set<OnOverScrollListener> mOnOverScrollListeners;
+    private OverScrollListenerRegistry mOnOverScrollListeners;
 
     public void addOnOverScrollListener(OnOverScrollListener listener) {
+        addOnOverScrollListener(listener, DELIVERY_MODE_IMMEDIATE);
+    }
+
+    /**
+     * Adds a listener whose events will be delivered in the given {@link DeliveryMode mode}.
+     */
+    public void addOnOverScrollListener(OnOverScrollListener listener, @DeliveryMode int deliveryMode) {
+        if (mOnOverScrollListeners == null)
+            mOnOverScrollListeners = new OverScrollListenerRegistry(this);
+        mOnOverScrollListeners.add(listener, deliveryMode, null);
+    }
+
+    /**
+     * Adds a listener whose events will be delivered on the given executor, with the
+     * consecutive distance changes coalesced to the latest one, for heavy consumers.
+     */
+    public void addOnOverScrollListener(OnOverScrollListener listener, Executor executor) {
         if (mOnOverScrollListeners == null)
-            mOnOverScrollListeners = new ArraySet<>();
-        mOnOverScrollListeners.add(listener);
+            mOnOverScrollListeners = new OverScrollListenerRegistry(this);
+        mOnOverScrollListeners.add(listener, DELIVERY_MODE_IMMEDIATE, executor);
     }
 
     public void removeOnOverScrollListener(OnOverScrollListener listener) {
         if (mOnOverScrollListeners != null)
-            mOnOverScrollListeners.add(listener);
+            mOnOverScrollListeners.remove(listener);
     }
 
     public void clearOnOverScrollListeners() {
@@ -515,6 +672,32 @@ public class NestedOverScrollView extends NestedScrollView implements OverScroll
             mOnOverScrollListeners.clear();
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // OverScroll Property Bindings
+    ///////////////////////////////////////////////////////////////////////////
+
+    private OverScrollPropertyBinder mPropertyBinder;
+
+    /**
+     * Binds a render property of another view to the over-scroll fraction of an edge of
+     * this view. All the bindings are applied in one batched pass per frame.
+     */
+    public void addOverScrollPropertyBinding(OverScrollPropertyBinding binding) {
+        if (mPropertyBinder == null)
+            mPropertyBinder = new OverScrollPropertyBinder(this);
+        mPropertyBinder.add(binding);
+    }
+
+    public void removeOverScrollPropertyBinding(OverScrollPropertyBinding binding) {
+        if (mPropertyBinder != null)
+            mPropertyBinder.remove(binding);
+    }
+
+    public void clearOverScrollPropertyBindings() {
+        if (mPropertyBinder != null)
+            mPropertyBinder.clear();
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // reflection methods
     ///////////////////////////////////////////////////////////////////////////
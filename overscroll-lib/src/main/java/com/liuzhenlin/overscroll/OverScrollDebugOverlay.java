@@ -0,0 +1,236 @@
+package com.liuzhenlin.overscroll;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.support.v4.view.ViewCompat;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.WindowManager;
+
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN;
+
+/**
+ * A debug overlay drawn on top of an {@link OverScrollView}, which plots the live over-scroll
+ * distance, the finger velocity, the resistance factor applied to the touch deltas and
+ * a rolling bar chart of the frame durations, marking the frames where over-scrolling
+ * caused a relayout.
+ * <p>
+ * Frame durations are the intervals between the vsync timestamps of consecutive
+ * {@link Choreographer} frames (API 16+), sampled on every frame while the host view is
+ * attached, and only the frames in which the host view was drawn are plotted. A frame is
+ * janky when it took longer than one and a half vsync intervals of the display.
+ * <p>
+ * It is only allocated while enabled, so the host view pays a null check when disabled.
+ */
+final class OverScrollDebugOverlay {
+    // @formatter:off
+    private final View mView;
+
+    private final float mDp;
+
+    /** 柱状图中记录的帧数 */
+    private static final int FRAME_COUNT = 60;
+
+    /** 一帧的理想时长，即屏幕的刷新间隔 */
+    private final float mFrameIntervalMs;
+
+    private final float[] mFrameDurations = new float[FRAME_COUNT];
+    private final boolean[] mRelayoutFrames = new boolean[FRAME_COUNT];
+    private int mFrameIndex;
+    private int mFrameCount;
+
+    /** 逐帧回调，以相邻两帧的vsync时间戳之差作为帧时长 */
+    private Object mFrameCallback;
+    private boolean mFrameCallbackPosted;
+    private long mLastFrameTimeNanos;
+
+    /** 上一帧之后view是否被绘制过，只有绘制过的帧才被记录 */
+    private boolean mDrawnSinceLastFrame;
+    private boolean mRelayoutPending;
+
+    private VelocityTracker mVelocityTracker;
+    private float mVelocityX;
+    private float mVelocityY;
+
+    private float mResistance = 1f;
+
+    private final Paint mBackgroundPaint = new Paint();
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mBarPaint = new Paint();
+
+    private final StringBuilder mText = new StringBuilder();
+    // @formatter:on
+
+    OverScrollDebugOverlay(View view) {
+        mView = view;
+        mDp = view.getResources().getDisplayMetrics().density;
+        mBackgroundPaint.setColor(0xAA000000);
+        mTextPaint.setColor(Color.WHITE);
+        mTextPaint.setTextSize(11f * mDp);
+
+        WindowManager wm = (WindowManager) view.getContext().getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = wm == null ? 60f : wm.getDefaultDisplay().getRefreshRate();
+        if (refreshRate < 10f) refreshRate = 60f; // 部分设备返回异常值
+        mFrameIntervalMs = 1000f / refreshRate;
+    }
+
+    void release() {
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+        if (mFrameCallbackPosted && SDK_INT >= JELLY_BEAN) {
+            mFrameCallbackPosted = false;
+            Choreographer.getInstance().removeFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+        }
+    }
+
+    @TargetApi(JELLY_BEAN)
+    private void postFrameCallback() {
+        if (mFrameCallback == null) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mFrameCallbackPosted = false;
+                    onFrame(frameTimeNanos);
+                    // view脱离窗口后不再逐帧回调，待其再次绘制时重新开始
+                    if (ViewCompat.isAttachedToWindow(mView))
+                        postFrameCallback();
+                    else
+                        mLastFrameTimeNanos = 0;
+                }
+            };
+        }
+        mFrameCallbackPosted = true;
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        if (mLastFrameTimeNanos != 0 && mDrawnSinceLastFrame) {
+            mFrameDurations[mFrameIndex] = (frameTimeNanos - mLastFrameTimeNanos) / 1000000f;
+            mRelayoutFrames[mFrameIndex] = mRelayoutPending;
+            mFrameIndex = (mFrameIndex + 1) % FRAME_COUNT;
+            if (mFrameCount < FRAME_COUNT) mFrameCount++;
+            mRelayoutPending = false;
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        mDrawnSinceLastFrame = false;
+    }
+
+    void onTouchEvent(MotionEvent ev) {
+        if (mVelocityTracker == null)
+            mVelocityTracker = VelocityTracker.obtain();
+        mVelocityTracker.addMovement(ev);
+        switch (ev.getAction() & MotionEvent.ACTION_MASK) {
+            case MotionEvent.ACTION_DOWN:
+                mVelocityX = mVelocityY = 0f;
+                break;
+            case MotionEvent.ACTION_MOVE:
+            case MotionEvent.ACTION_UP:
+                mVelocityTracker.computeCurrentVelocity(1000);
+                mVelocityX = mVelocityTracker.getXVelocity();
+                mVelocityY = mVelocityTracker.getYVelocity();
+                invalidate();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                mVelocityTracker.clear();
+                break;
+        }
+    }
+
+    void setResistance(float resistance) {
+        mResistance = resistance;
+    }
+
+    /**
+     * Called by the host view whenever it has been laid out, marking the next frame
+     * as a relayout one if that was caused by over-scrolling.
+     */
+    void onLayout(boolean overScrolling) {
+        if (overScrolling)
+            mRelayoutPending = true;
+    }
+
+    /**
+     * Requests the host view to be redrawn so that the plotted values keep up to date,
+     * even if the over-scroll only changes the render properties of its child.
+     */
+    void invalidate() {
+        ViewCompat.postInvalidateOnAnimation(mView);
+    }
+
+    void draw(Canvas canvas, float distance, int state, int edge) {
+        // 本帧的时长在下一帧开始时才能得知，由帧回调记录
+        mDrawnSinceLastFrame = true;
+        if (!mFrameCallbackPosted && SDK_INT >= JELLY_BEAN)
+            postFrameCallback();
+
+        final float padding = 6f * mDp;
+        final float lineHeight = mTextPaint.getTextSize() * 1.25f;
+        final float barWidth = 3f * mDp;
+        final float chartHeight = 40f * mDp;
+        final float width = FRAME_COUNT * barWidth + padding * 2f;
+        final float height = lineHeight * 4f + chartHeight + padding * 3f;
+
+        canvas.save();
+        // 使浮层固定在view的可视区域内
+        canvas.translate(mView.getScrollX(), mView.getScrollY());
+        canvas.drawRect(0, 0, width, height, mBackgroundPaint);
+
+        float y = padding + mTextPaint.getTextSize();
+        mText.setLength(0);
+        mText.append("dist ").append((int) distance).append("px  state ").append(state)
+                .append("  edge ").append(edge);
+        canvas.drawText(mText, 0, mText.length(), padding, y, mTextPaint);
+
+        y += lineHeight;
+        mText.setLength(0);
+        mText.append("vx ").append((int) mVelocityX).append("  vy ").append((int) mVelocityY)
+                .append(" px/s");
+        canvas.drawText(mText, 0, mText.length(), padding, y, mTextPaint);
+
+        y += lineHeight;
+        mText.setLength(0);
+        mText.append("resistance ").append((int) (mResistance * 100f + 0.5f)).append('%');
+        canvas.drawText(mText, 0, mText.length(), padding, y, mTextPaint);
+
+        y += lineHeight;
+        int jankyFrames = 0;
+        int relayoutFrames = 0;
+        for (int i = 0; i < mFrameCount; i++) {
+            if (mFrameDurations[i] > mFrameIntervalMs * 1.5f) jankyFrames++;
+            if (mRelayoutFrames[i]) relayoutFrames++;
+        }
+        mText.setLength(0);
+        mText.append("janky ").append(jankyFrames).append('/').append(mFrameCount)
+                .append("  relayout ").append(relayoutFrames);
+        canvas.drawText(mText, 0, mText.length(), padding, y, mTextPaint);
+
+        // 帧时长柱状图，最新的一帧位于最右边
+        final float chartBottom = height - padding;
+        final float msToPx = chartHeight / (mFrameIntervalMs * 3f);
+        mBarPaint.setColor(0x66FFFFFF);
+        canvas.drawLine(padding, chartBottom - mFrameIntervalMs * msToPx,
+                width - padding, chartBottom - mFrameIntervalMs * msToPx, mBarPaint);
+        for (int i = 0; i < mFrameCount; i++) {
+            final int index = (mFrameIndex - mFrameCount + i + FRAME_COUNT) % FRAME_COUNT;
+            final float duration = mFrameDurations[index];
+            final float left = padding + (FRAME_COUNT - mFrameCount + i) * barWidth;
+            final float top = Math.max(chartBottom - duration * msToPx, chartBottom - chartHeight);
+            if (mRelayoutFrames[index])
+                mBarPaint.setColor(Color.MAGENTA);
+            else if (duration > mFrameIntervalMs * 1.5f)
+                mBarPaint.setColor(Color.RED);
+            else
+                mBarPaint.setColor(Color.GREEN);
+            canvas.drawRect(left, top, left + barWidth - mDp, chartBottom, mBarPaint);
+        }
+        canvas.restore();
+    }
+}
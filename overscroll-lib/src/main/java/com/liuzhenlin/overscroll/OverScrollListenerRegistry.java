@@ -0,0 +1,259 @@
+package com.liuzhenlin.overscroll;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+import java.util.concurrent.Executor;
+
+import static com.liuzhenlin.overscroll.OverScrollView.DELIVERY_MODE_FRAME_COALESCED;
+import static com.liuzhenlin.overscroll.OverScrollView.DELIVERY_MODE_IDLE;
+import static com.liuzhenlin.overscroll.OverScrollView.DELIVERY_MODE_IMMEDIATE;
+
+/**
+ * The registry of the {@link OverScrollView.OnOverScrollListener}s of an {@link OverScrollView}.
+ * <p>
+ * Listeners are kept in a copy-on-write array, so dispatching an event iterates over
+ * a snapshot of them without any allocation, and each of them is delivered the events in
+ * its own {@link OverScrollView.DeliveryMode delivery mode} or on its own executor.
+ */
+final class OverScrollListenerRegistry {
+    private static final Entry[] EMPTY_ENTRIES = new Entry[0];
+
+    private static final int EVENT_START = 0;
+    private static final int EVENT_END = 1;
+    private static final int EVENT_DISTANCE_CHANGE = 2;
+    private static final int EVENT_STATE_CHANGE = 3;
+
+    private final View mHost;
+
+    private Entry[] mEntries = EMPTY_ENTRIES;
+
+    OverScrollListenerRegistry(@NonNull View host) {
+        mHost = host;
+    }
+
+    void add(@NonNull OverScrollView.OnOverScrollListener listener,
+             @OverScrollView.DeliveryMode int deliveryMode, @Nullable Executor executor) {
+        final Entry[] entries = mEntries;
+        final int index = indexOf(entries, listener);
+        Entry[] newEntries;
+        if (index >= 0) {
+            // 已添加过的监听器以新的分发模式替换之前的
+            entries[index].removed = true;
+            newEntries = entries.clone();
+        } else {
+            newEntries = new Entry[entries.length + 1];
+            System.arraycopy(entries, 0, newEntries, 0, entries.length);
+        }
+        newEntries[index >= 0 ? index : entries.length] = new Entry(listener, deliveryMode, executor);
+        mEntries = newEntries;
+    }
+
+    void remove(@NonNull OverScrollView.OnOverScrollListener listener) {
+        final Entry[] entries = mEntries;
+        final int index = indexOf(entries, listener);
+        if (index < 0) return;
+
+        entries[index].removed = true;
+        if (entries.length == 1) {
+            mEntries = EMPTY_ENTRIES;
+        } else {
+            Entry[] newEntries = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, newEntries, 0, index);
+            System.arraycopy(entries, index + 1, newEntries, index, entries.length - index - 1);
+            mEntries = newEntries;
+        }
+    }
+
+    void clear() {
+        for (Entry entry : mEntries)
+            entry.removed = true;
+        mEntries = EMPTY_ENTRIES;
+    }
+
+    private static int indexOf(Entry[] entries, OverScrollView.OnOverScrollListener listener) {
+        for (int i = 0; i < entries.length; i++)
+            if (entries[i].listener == listener)
+                return i;
+        return -1;
+    }
+
+    void dispatchOverScrollStart(int edge) {
+        for (Entry entry : mEntries)
+            entry.onEvent(EVENT_START, edge);
+    }
+
+    void dispatchOverScrollEnd(int edge) {
+        for (Entry entry : mEntries)
+            entry.onEvent(EVENT_END, edge);
+    }
+
+    void dispatchOverScrollDistanceChange(float distance) {
+        for (Entry entry : mEntries)
+            entry.onEvent(EVENT_DISTANCE_CHANGE, distance);
+    }
+
+    void dispatchOverScrollStateChange(int state) {
+        for (Entry entry : mEntries)
+            entry.onEvent(EVENT_STATE_CHANGE, state);
+    }
+
+    private final class Entry implements Runnable, MessageQueue.IdleHandler {
+        final OverScrollView.OnOverScrollListener listener;
+        final int deliveryMode;
+        final Executor executor;
+
+        volatile boolean removed;
+
+        /** 是否已安排在下一帧、空闲时或在executor上分发事件 */
+        boolean scheduled;
+
+        /** {@link OverScrollView#DELIVERY_MODE_FRAME_COALESCED}模式下待分发的最新距离 */
+        float pendingDistance;
+        boolean distancePending;
+
+        /** 延迟分发的事件队列，连续的距离改变事件只保留最新的一个 */
+        int[] queuedEvents;
+        float[] queuedArgs;
+        int queueHead;
+        int queueTail;
+
+        Entry(OverScrollView.OnOverScrollListener listener, int deliveryMode, Executor executor) {
+            this.listener = listener;
+            this.deliveryMode = executor == null ? deliveryMode : DELIVERY_MODE_IMMEDIATE;
+            this.executor = executor;
+        }
+
+        void onEvent(int event, float arg) {
+            if (executor != null) {
+                if (enqueue(event, arg))
+                    executor.execute(this);
+                return;
+            }
+            switch (deliveryMode) {
+                case DELIVERY_MODE_IMMEDIATE:
+                    deliver(event, arg);
+                    break;
+                case DELIVERY_MODE_FRAME_COALESCED:
+                    if (event == EVENT_DISTANCE_CHANGE) {
+                        pendingDistance = arg;
+                        distancePending = true;
+                        if (!scheduled) {
+                            scheduled = true;
+                            ViewCompat.postOnAnimation(mHost, this);
+                        }
+                    } else {
+                        // 先分发尚未分发的距离，以保证事件的先后顺序
+                        flushPendingDistance();
+                        deliver(event, arg);
+                    }
+                    break;
+                case DELIVERY_MODE_IDLE:
+                    if (enqueue(event, arg))
+                        Looper.myQueue().addIdleHandler(this);
+                    break;
+            }
+        }
+
+        /**
+         * @return true if the queue was empty and a drain of it needs to be scheduled
+         */
+        synchronized boolean enqueue(int event, float arg) {
+            if (event == EVENT_DISTANCE_CHANGE && queueTail > queueHead
+                    && queuedEvents[queueTail - 1] == EVENT_DISTANCE_CHANGE) {
+                queuedArgs[queueTail - 1] = arg;
+                return false;
+            }
+            if (queuedEvents == null) {
+                queuedEvents = new int[8];
+                queuedArgs = new float[8];
+            } else if (queueTail == queuedEvents.length) {
+                final int count = queueTail - queueHead;
+                if (queueHead > 0) {
+                    System.arraycopy(queuedEvents, queueHead, queuedEvents, 0, count);
+                    System.arraycopy(queuedArgs, queueHead, queuedArgs, 0, count);
+                } else {
+                    int[] events = new int[queuedEvents.length * 2];
+                    float[] args = new float[queuedArgs.length * 2];
+                    System.arraycopy(queuedEvents, 0, events, 0, count);
+                    System.arraycopy(queuedArgs, 0, args, 0, count);
+                    queuedEvents = events;
+                    queuedArgs = args;
+                }
+                queueHead = 0;
+                queueTail = count;
+            }
+            queuedEvents[queueTail] = event;
+            queuedArgs[queueTail] = arg;
+            queueTail++;
+            if (scheduled)
+                return false;
+            scheduled = true;
+            return true;
+        }
+
+        void drainQueue() {
+            while (true) {
+                final int event;
+                final float arg;
+                synchronized (this) {
+                    if (queueHead == queueTail) {
+                        queueHead = queueTail = 0;
+                        scheduled = false;
+                        return;
+                    }
+                    event = queuedEvents[queueHead];
+                    arg = queuedArgs[queueHead];
+                    queueHead++;
+                }
+                deliver(event, arg);
+            }
+        }
+
+        void flushPendingDistance() {
+            if (distancePending) {
+                distancePending = false;
+                deliver(EVENT_DISTANCE_CHANGE, pendingDistance);
+            }
+        }
+
+        void deliver(int event, float arg) {
+            if (removed) return;
+            final OverScrollView view = (OverScrollView) mHost;
+            switch (event) {
+                case EVENT_START:
+                    listener.onOverScrollStart(view, (int) arg);
+                    break;
+                case EVENT_END:
+                    listener.onOverScrollEnd(view, (int) arg);
+                    break;
+                case EVENT_DISTANCE_CHANGE:
+                    listener.onOverScrollDistanceChange(view, arg);
+                    break;
+                case EVENT_STATE_CHANGE:
+                    listener.onOverScrollStateChange(view, (int) arg);
+                    break;
+            }
+        }
+
+        @Override
+        public void run() {
+            if (executor != null) {
+                drainQueue();
+            } else {
+                scheduled = false;
+                flushPendingDistance();
+            }
+        }
+
+        @Override
+        public boolean queueIdle() {
+            drainQueue();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.liuzhenlin.overscroll;
+
+import android.support.annotation.NonNull;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.ViewPropertyAnimatorCompat;
+import android.support.v4.view.ViewPropertyAnimatorListener;
+import android.view.View;
+import android.view.animation.Interpolator;
+
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_EDGE_BOTTOM;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_EDGE_END;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_EDGE_START;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_EDGE_TOP;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_EDGE_UNSPECIFIED;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_STATE_TOUCH_SCROLL;
+
+/**
+ * Applies all the {@link OverScrollPropertyBinding}s of an {@link OverScrollView} in one batched
+ * pass per frame, and hands the linear ones over to {@link android.view.ViewPropertyAnimator}s
+ * when the view springs back, which animate all the properties of a target view in a single
+ * animator instead of setting each of them from the host on every frame.
+ */
+final class OverScrollPropertyBinder implements Runnable {
+    private static final OverScrollPropertyBinding[] EMPTY_BINDINGS = new OverScrollPropertyBinding[0];
+
+    private final View mHost;
+
+    private OverScrollPropertyBinding[] mBindings = EMPTY_BINDINGS;
+
+    private boolean mVertical;
+    /** 过度滚动的偏移量，向顶部或水平开始端拉为正 */
+    private float mOffset;
+
+    private boolean mApplyScheduled;
+
+    OverScrollPropertyBinder(@NonNull View host) {
+        mHost = host;
+    }
+
+    void add(@NonNull OverScrollPropertyBinding binding) {
+        final OverScrollPropertyBinding[] bindings = mBindings;
+        for (OverScrollPropertyBinding b : bindings)
+            if (b == binding) return;
+
+        OverScrollPropertyBinding[] newBindings = new OverScrollPropertyBinding[bindings.length + 1];
+        System.arraycopy(bindings, 0, newBindings, 0, bindings.length);
+        newBindings[bindings.length] = binding;
+        mBindings = newBindings;
+        scheduleApply();
+    }
+
+    void remove(@NonNull OverScrollPropertyBinding binding) {
+        final OverScrollPropertyBinding[] bindings = mBindings;
+        for (int i = 0; i < bindings.length; i++) {
+            if (bindings[i] == binding) {
+                OverScrollPropertyBinding[] newBindings = new OverScrollPropertyBinding[bindings.length - 1];
+                System.arraycopy(bindings, 0, newBindings, 0, i);
+                System.arraycopy(bindings, i + 1, newBindings, i, bindings.length - i - 1);
+                mBindings = newBindings;
+                restore(binding);
+                return;
+            }
+        }
+    }
+
+    void clear() {
+        final OverScrollPropertyBinding[] bindings = mBindings;
+        mBindings = EMPTY_BINDINGS;
+        for (OverScrollPropertyBinding binding : bindings)
+            restore(binding);
+    }
+
+    /**
+     * Stops the spring-back of the given binding, if any, and resets its property
+     * to the start value, as it is no longer driven by the over-scroll.
+     */
+    private static void restore(OverScrollPropertyBinding binding) {
+        if (binding.mSpringBack != null) {
+            binding.mSpringBack = null;
+            // 同一View上的其他绑定的动画也会被取消，它们会在下一帧按当前的偏移量重新设置
+            ViewCompat.animate(binding.getTarget()).cancel();
+        }
+        binding.apply(0f);
+    }
+
+    /**
+     * @param vertical whether the host view over-scrolls vertically or horizontally
+     * @param offset   the current over-scroll offset, positive for the top or start edge
+     *                 and negative for the bottom or end edge.
+     */
+    void onOverScrollOffsetChanged(boolean vertical, float offset) {
+        mVertical = vertical;
+        mOffset = offset;
+        scheduleApply();
+    }
+
+    void onOverScrollStateChanged(int state) {
+        // 用户再次拖动时，取消尚未结束的回弹动画，改为逐帧设置属性
+        if (state == OVERSCROLL_STATE_TOUCH_SCROLL) {
+            for (OverScrollPropertyBinding binding : mBindings)
+                if (binding.mSpringBack != null)
+                    ViewCompat.animate(binding.getTarget()).cancel();
+        }
+    }
+
+    private void scheduleApply() {
+        if (!mApplyScheduled) {
+            mApplyScheduled = true;
+            ViewCompat.postOnAnimation(mHost, this);
+        }
+    }
+
+    @Override
+    public void run() {
+        mApplyScheduled = false;
+        final int edge = getCurrentEdge();
+        final float absOffset = Math.abs(mOffset);
+        for (OverScrollPropertyBinding binding : mBindings) {
+            if (binding.mSpringBack != null) continue;
+            binding.apply((binding.getEdge() & edge) != 0 ?
+                    Math.min(absOffset / getMaxDistance(binding), 1f) : 0f);
+        }
+    }
+
+    private int getCurrentEdge() {
+        if (mOffset == 0f)
+            return OVERSCROLL_EDGE_UNSPECIFIED;
+        if (mVertical)
+            return mOffset > 0f ? OVERSCROLL_EDGE_TOP : OVERSCROLL_EDGE_BOTTOM;
+        return mOffset > 0f ? OVERSCROLL_EDGE_START : OVERSCROLL_EDGE_END;
+    }
+
+    private float getMaxDistance(OverScrollPropertyBinding binding) {
+        final float maxDistance = binding.getMaxDistance();
+        if (maxDistance > 0f)
+            return maxDistance;
+        return Math.max((mVertical ? mHost.getHeight() : mHost.getWidth()) * 0.95f, 1f);
+    }
+
+    /**
+     * Called when the host view starts to spring back from the current offset to 0.
+     * The bindings that are mapped linearly and not clamped at the moment go back to their
+     * start values on {@link android.view.ViewPropertyAnimator}s with the same duration and
+     * interpolator as the spring-back, which keeps them in sync with it. As a view has only
+     * one such animator, the bindings sharing a target view are animated together, with
+     * a listener of their own that only releases them.
+     */
+    void animateToStart(int duration, Interpolator interpolator) {
+        final int edge = getCurrentEdge();
+        final float absOffset = Math.abs(mOffset);
+        final OverScrollPropertyBinding[] bindings = mBindings;
+        for (int i = 0; i < bindings.length; i++) {
+            final OverScrollPropertyBinding binding = bindings[i];
+            if (!canAnimateToStart(binding, edge, absOffset)) continue;
+
+            final View target = binding.getTarget();
+            final SpringBack springBack = new SpringBack(target);
+            ViewPropertyAnimatorCompat animator = ViewCompat.animate(target);
+            for (int j = i; j < bindings.length; j++) {
+                final OverScrollPropertyBinding b = bindings[j];
+                if (b.getTarget() == target && canAnimateToStart(b, edge, absOffset)) {
+                    b.mSpringBack = springBack;
+                    b.animateToStart(animator);
+                }
+            }
+            animator.setDuration(duration)
+                    .setInterpolator(interpolator)
+                    .setListener(springBack)
+                    .start();
+        }
+    }
+
+    private boolean canAnimateToStart(OverScrollPropertyBinding binding, int edge, float absOffset) {
+        return binding.mSpringBack == null && binding.getCurve() == null
+                && (binding.getEdge() & edge) != 0 && absOffset <= getMaxDistance(binding);
+    }
+
+    /**
+     * Listens to the spring-back animator of a target view, releasing only the bindings
+     * whose properties it animates.
+     */
+    private final class SpringBack implements ViewPropertyAnimatorListener {
+        final View mTarget;
+
+        SpringBack(View target) {
+            mTarget = target;
+        }
+
+        @Override
+        public void onAnimationStart(View view) {
+        }
+
+        @Override
+        public void onAnimationEnd(View view) {
+            release();
+        }
+
+        @Override
+        public void onAnimationCancel(View view) {
+            if (release())
+                scheduleApply();
+        }
+
+        private boolean release() {
+            boolean released = false;
+            for (OverScrollPropertyBinding binding : mBindings) {
+                if (binding.mSpringBack == this) {
+                    binding.mSpringBack = null;
+                    released = true;
+                }
+            }
+            return released;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.liuzhenlin.overscroll;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewPropertyAnimatorCompat;
+import android.support.v4.view.ViewPropertyAnimatorListener;
+import android.view.View;
+import android.view.animation.Interpolator;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Binds a render property of a view to the normalised over-scroll fraction of an edge
+ * of an {@link OverScrollView}, i.e., the over-scroll distance of that edge divided by
+ * {@link #getMaxDistance() the max distance}, clamped to [0, 1] and mapped through an optional
+ * curve, so that the property goes from {@link #getStartValue()} to {@link #getEndValue()}
+ * as the edge is pulled.
+ *
+ * @see SwipeMenuRecyclerView#addOverScrollPropertyBinding(OverScrollPropertyBinding)
+ */
+public class OverScrollPropertyBinding {
+    // @formatter:off
+    public static final int PROPERTY_ALPHA = 0;
+    public static final int PROPERTY_SCALE_X = 1;
+    public static final int PROPERTY_SCALE_Y = 2;
+    /** Both {@link #PROPERTY_SCALE_X} and {@link #PROPERTY_SCALE_Y} */
+    public static final int PROPERTY_SCALE = 3;
+    public static final int PROPERTY_TRANSLATION_X = 4;
+    public static final int PROPERTY_TRANSLATION_Y = 5;
+    public static final int PROPERTY_ROTATION = 6;
+
+    @IntDef({
+            PROPERTY_ALPHA, PROPERTY_SCALE_X, PROPERTY_SCALE_Y, PROPERTY_SCALE,
+            PROPERTY_TRANSLATION_X, PROPERTY_TRANSLATION_Y, PROPERTY_ROTATION
+    })
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Property {
+    }
+
+    private final View mTarget;
+
+    @OverScrollView.OverScrollEdge
+    private final int mEdge;
+
+    @Property
+    private final int mProperty;
+
+    private final float mStartValue;
+    private final float mEndValue;
+
+    private final float mMaxDistance;
+
+    private final Interpolator mCurve;
+
+    /** 属性值正由其恢复为初始值的回弹动画的监听器，此时不再逐帧设置属性 */
+    ViewPropertyAnimatorListener mSpringBack;
+    // @formatter:on
+
+    /**
+     * @param target      the view whose property will be driven by the over-scroll
+     * @param edge        the edge(s) whose over-scroll drives the property
+     * @param property    the property to drive
+     * @param startValue  the property value when the edge is not over-scrolled
+     * @param endValue    the property value when the edge is over-scrolled by the max distance
+     * @param maxDistance the over-scroll distance in pixels at which the fraction reaches 1,
+     *                    or 0 to use 95% of the view's size along the over-scroll axis,
+     *                    which the resistance of over-scrolling never allows to be reached.
+     */
+    public OverScrollPropertyBinding(@NonNull View target, @OverScrollView.OverScrollEdge int edge,
+                                     @Property int property, float startValue, float endValue,
+                                     float maxDistance) {
+        this(target, edge, property, startValue, endValue, maxDistance, null);
+    }
+
+    /**
+     * @param curve the curve to map the linear over-scroll fraction through,
+     *              or null to map the fraction linearly.
+     * @see #OverScrollPropertyBinding(View, int, int, float, float, float)
+     */
+    public OverScrollPropertyBinding(@NonNull View target, @OverScrollView.OverScrollEdge int edge,
+                                     @Property int property, float startValue, float endValue,
+                                     float maxDistance, @Nullable Interpolator curve) {
+        mTarget = target;
+        mEdge = edge;
+        mProperty = property;
+        mStartValue = startValue;
+        mEndValue = endValue;
+        mMaxDistance = maxDistance;
+        mCurve = curve;
+    }
+
+    @NonNull
+    public View getTarget() {
+        return mTarget;
+    }
+
+    @OverScrollView.OverScrollEdge
+    public int getEdge() {
+        return mEdge;
+    }
+
+    @Property
+    public int getProperty() {
+        return mProperty;
+    }
+
+    public float getStartValue() {
+        return mStartValue;
+    }
+
+    public float getEndValue() {
+        return mEndValue;
+    }
+
+    public float getMaxDistance() {
+        return mMaxDistance;
+    }
+
+    @Nullable
+    public Interpolator getCurve() {
+        return mCurve;
+    }
+
+    /**
+     * Sets the property of the target view according to the given over-scroll fraction.
+     */
+    void apply(float fraction) {
+        if (mCurve != null)
+            fraction = mCurve.getInterpolation(fraction);
+        final float value = mStartValue + (mEndValue - mStartValue) * fraction;
+        switch (mProperty) {
+            case PROPERTY_ALPHA:
+                mTarget.setAlpha(value);
+                break;
+            case PROPERTY_SCALE_X:
+                mTarget.setScaleX(value);
+                break;
+            case PROPERTY_SCALE_Y:
+                mTarget.setScaleY(value);
+                break;
+            case PROPERTY_SCALE:
+                mTarget.setScaleX(value);
+                mTarget.setScaleY(value);
+                break;
+            case PROPERTY_TRANSLATION_X:
+                mTarget.setTranslationX(value);
+                break;
+            case PROPERTY_TRANSLATION_Y:
+                mTarget.setTranslationY(value);
+                break;
+            case PROPERTY_ROTATION:
+                mTarget.setRotation(value);
+                break;
+        }
+    }
+
+    /**
+     * Sets up the given animator to animate the property of the target view back to
+     * its start value.
+     */
+    void animateToStart(ViewPropertyAnimatorCompat animator) {
+        switch (mProperty) {
+            case PROPERTY_ALPHA:
+                animator.alpha(mStartValue);
+                break;
+            case PROPERTY_SCALE_X:
+                animator.scaleX(mStartValue);
+                break;
+            case PROPERTY_SCALE_Y:
+                animator.scaleY(mStartValue);
+                break;
+            case PROPERTY_SCALE:
+                animator.scaleX(mStartValue).scaleY(mStartValue);
+                break;
+            case PROPERTY_TRANSLATION_X:
+                animator.translationX(mStartValue);
+                break;
+            case PROPERTY_TRANSLATION_Y:
+                animator.translationY(mStartValue);
+                break;
+            case PROPERTY_ROTATION:
+                animator.rotation(mStartValue);
+                break;
+        }
+    }
+}
@@ -41,6 +41,26 @@ public interface OverScrollView {
     @interface OverScrollState {
     }
 
+    /** Delivers the events to the listener synchronously as they happen. */
+    int DELIVERY_MODE_IMMEDIATE = 0;
+    /**
+     * Delivers the distance changes to the listener at most once per frame with only
+     * the latest distance. The other events are still delivered synchronously.
+     */
+    int DELIVERY_MODE_FRAME_COALESCED = 1;
+    /**
+     * Defers the events until the message queue of the main thread becomes idle,
+     * with the consecutive distance changes coalesced to the latest one.
+     */
+    int DELIVERY_MODE_IDLE = 2;
+
+    @IntDef({
+            DELIVERY_MODE_IMMEDIATE, DELIVERY_MODE_FRAME_COALESCED, DELIVERY_MODE_IDLE
+    })
+    @Retention(RetentionPolicy.SOURCE)
+    @interface DeliveryMode {
+    }
+
     boolean handleOverScroll(MotionEvent ev);
 
     // @formatter:off
@@ -1,14 +1,25 @@
 package com.liuzhenlin.overscroll;
 
 import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.support.annotation.IdRes;
+import android.support.annotation.IntDef;
+import android.support.annotation.LayoutRes;
 import android.support.annotation.Nullable;
-import android.support.v4.util.ArraySet;
 import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.widget.LinearLayout;
-import android.widget.OverScroller;
 
-import java.util.Set;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR1;
 
 /**
  * Created on 2017/10/21. </br>
@@ -18,7 +29,57 @@ import java.util.Set;
  */
 
 public class SmoothScrollableLinearLayout extends LinearLayout {
-    private final OverScroller mOverScroller;
+    // @formatter:off
+    /**
+     * 驱动平滑滚动的动画，由所在的{@link SwipeMenuRecyclerView}统一提供，
+     * 不在列表中时才使用当前view自己的
+     */
+    private ItemSwipeAnimationDriver mAnimationDriver;
+    private ItemSwipeAnimationDriver mOwnAnimationDriver;
+
+    /**
+     * 滑动时滚动整个布局的内容，菜单位于布局之外并随内容一同滚动
+     * @see #setSwipeMode(int)
+     */
+    public static final int SWIPE_MODE_SCROLL = 0;
+
+    /**
+     * 滑动时只平移第一个子view（内容），菜单位于内容之下且在未被露出时不参与绘制
+     * @see #setSwipeMode(int)
+     */
+    public static final int SWIPE_MODE_TRANSLATE = 1;
+
+    @IntDef({SWIPE_MODE_SCROLL, SWIPE_MODE_TRANSLATE})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface SwipeMode {
+    }
+
+    @SwipeMode
+    private int mSwipeMode = SWIPE_MODE_SCROLL;
+
+    /** 菜单的布局，在第一次滑动时才被加载 */
+    @LayoutRes
+    private int mMenuLayoutResource;
+    private View mLazyMenu;
+
+    /** 位于水平开始端的菜单的id，向水平结束端滑动时露出 */
+    @IdRes
+    private int mStartMenuId;
+
+    /** 当前被渲染到layer中的菜单 */
+    private View mSnapshottedMenu;
+
+    /** 滚动模式下，是否也最后绘制内容，以覆盖被平移到其下的菜单 */
+    private boolean mContentDrawnOnTop;
+
+    /**
+     * 标志当前手势的触摸事件直接派发给内容：内容覆盖在菜单之上时，按下的位置若在内容上，
+     * 则不让被遮住的菜单接收到事件
+     */
+    private boolean mTouchRoutedToContent;
+
+    private OnScrollChangeListener[] mOnScrollChangeListeners;
+    // @formatter:on
 
     public SmoothScrollableLinearLayout(Context context) {
         this(context, null);
@@ -30,7 +91,300 @@ public class SmoothScrollableLinearLayout extends LinearLayout {
 
     public SmoothScrollableLinearLayout(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        mOverScroller = new OverScroller(context);
+        TypedArray a = context.obtainStyledAttributes(attrs,
+                R.styleable.SmoothScrollableLinearLayout, defStyleAttr, 0);
+        mMenuLayoutResource = a.getResourceId(R.styleable
+                .SmoothScrollableLinearLayout_menuLayout, 0);
+        mStartMenuId = a.getResourceId(R.styleable
+                .SmoothScrollableLinearLayout_startMenu, 0);
+        a.recycle();
+    }
+
+    /**
+     * Sets the id of the child to be used as the start menu, which is laid out before
+     * the start edge of the content and shown when this view is swiped towards its end edge,
+     * whereas the (end) menu is the last child other than the content.
+     */
+    public void setStartMenuId(@IdRes int id) {
+        if (mStartMenuId != id) {
+            mStartMenuId = id;
+            requestLayout();
+        }
+    }
+
+    @IdRes
+    public int getStartMenuId() {
+        return mStartMenuId;
+    }
+
+    /**
+     * @return the start menu of this view, or null if there is none
+     * @see #setStartMenuId(int)
+     */
+    @Nullable
+    public View getStartMenuView() {
+        if (mStartMenuId == 0) return null;
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (child.getId() == mStartMenuId)
+                return child;
+        }
+        return null;
+    }
+
+    @LayoutRes
+    public int getMenuLayoutResource() {
+        return mMenuLayoutResource;
+    }
+
+    /**
+     * Sets the layout resource of the menu, which will not be inflated and added as
+     * the last child of this view until this view is swiped for the first time.
+     * <p>
+     * Alternatively, a {@link ViewStub} can be declared as the last child of this view
+     * for the same purpose.
+     */
+    public void setMenuLayoutResource(@LayoutRes int resource) {
+        if (mMenuLayoutResource == resource) return;
+        if (mLazyMenu != null) {
+            removeView(mLazyMenu);
+            mLazyMenu = null;
+        }
+        mMenuLayoutResource = resource;
+    }
+
+    /**
+     * @return whether the menu of this view is declared to be inflated lazily
+     * and has not been inflated yet.
+     */
+    public boolean isMenuInflationPending() {
+        if (mMenuLayoutResource != 0)
+            return mLazyMenu == null;
+        final int childCount = getChildCount();
+        return childCount > 1 && getChildAt(childCount - 1) instanceof ViewStub;
+    }
+
+    /**
+     * Inflates the menu of this view if it is declared to be inflated lazily and has not been
+     * inflated yet, and measures it at once, so that its width is known before the next layout.
+     *
+     * @return the menu view just inflated, or null if there is no menu to inflate.
+     */
+    @Nullable
+    public View inflateMenuIfNeeded() {
+        if (!isMenuInflationPending()) return null;
+
+        final View menu;
+        if (mMenuLayoutResource != 0) {
+            menu = LayoutInflater.from(getContext()).inflate(mMenuLayoutResource, this, false);
+            addMenu(menu);
+        } else {
+            menu = ((ViewStub) getChildAt(getChildCount() - 1)).inflate();
+            measureMenu(menu);
+        }
+        return menu;
+    }
+
+    /**
+     * Adds the given menu view, which was inflated from {@link #getMenuLayoutResource()}
+     * and removed from another view of the same kind, as the menu of this view.
+     */
+    void addMenu(View menu) {
+        addView(menu);
+        mLazyMenu = menu;
+        measureMenu(menu);
+    }
+
+    /**
+     * Removes the menu inflated from {@link #getMenuLayoutResource()} from this view,
+     * so that it can be reused by another view of the same kind.
+     *
+     * @return the menu view removed, or null if the menu has not been inflated
+     */
+    @Nullable
+    View removeMenu() {
+        final View menu = mLazyMenu;
+        if (menu != null) {
+            if (menu == mSnapshottedMenu)
+                releaseMenuSnapshot();
+            mLazyMenu = null;
+            removeView(menu);
+        }
+        return menu;
+    }
+
+    /**
+     * @return the menu view of this view, i.e., the last child other than the content,
+     * or null if there is no menu or the menu has not been inflated yet.
+     */
+    @Nullable
+    public View getMenuView() {
+        final int childCount = getChildCount();
+        if (childCount <= 1) return null;
+        final View menu = getChildAt(childCount - 1);
+        return menu instanceof ViewStub || menu == getContentView() || menu == getStartMenuView() ?
+                null : menu;
+    }
+
+    /**
+     * Renders the menu into an offscreen layer, a hardware layer if this view is hardware
+     * accelerated or else a bitmap, so that the menu is drawn by simply compositing
+     * the layer on each frame while this view is swiped, rather than redrawing its children.
+     * Nothing is done if the menu already has a layer of its own.
+     *
+     * @see #releaseMenuSnapshot()
+     */
+    void snapshotMenu() {
+        if (mSnapshottedMenu != null) return;
+        final View menu = getMenuView();
+        if (menu == null || menu.getLayerType() != LAYER_TYPE_NONE) return;
+
+        mSnapshottedMenu = menu;
+        if (isHardwareAccelerated()) {
+            menu.setLayerType(LAYER_TYPE_HARDWARE, null);
+            if (getWindowToken() != null)
+                menu.buildLayer();
+        } else {
+            menu.setLayerType(LAYER_TYPE_SOFTWARE, null);
+        }
+    }
+
+    /**
+     * Switches the menu back to drawing its live views, e.g., to show the ripples of
+     * the buttons in it.
+     */
+    void releaseMenuSnapshot() {
+        if (mSnapshottedMenu != null) {
+            mSnapshottedMenu.setLayerType(LAYER_TYPE_NONE, null);
+            mSnapshottedMenu = null;
+        }
+    }
+
+    private void measureMenu(View menu) {
+        final ViewGroup.LayoutParams lp = menu.getLayoutParams();
+        final int unspecified = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        if (getOrientation() == VERTICAL) {
+            menu.measure(
+                    getChildMeasureSpec(MeasureSpec.makeMeasureSpec(getMeasuredWidth(), MeasureSpec.EXACTLY),
+                            getPaddingLeft() + getPaddingRight(), lp.width),
+                    getChildMeasureSpec(unspecified, 0, lp.height));
+        } else {
+            menu.measure(
+                    getChildMeasureSpec(unspecified, 0, lp.width),
+                    getChildMeasureSpec(MeasureSpec.makeMeasureSpec(getMeasuredHeight(), MeasureSpec.EXACTLY),
+                            getPaddingTop() + getPaddingBottom(), lp.height));
+        }
+    }
+
+    /**
+     * Called by the {@link SwipeMenuRecyclerView} this view is attached to, to have the smooth
+     * scrolls of this view driven along with those of the other itemViews.
+     */
+    void setAnimationDriver(ItemSwipeAnimationDriver driver) {
+        if (mAnimationDriver == driver) return;
+        if (mAnimationDriver != null)
+            mAnimationDriver.finish(this);
+        mAnimationDriver = driver;
+    }
+
+    private ItemSwipeAnimationDriver getAnimationDriver() {
+        if (mAnimationDriver != null)
+            return mAnimationDriver;
+        if (mOwnAnimationDriver == null)
+            mOwnAnimationDriver = new ItemSwipeAnimationDriver(this);
+        return mOwnAnimationDriver;
+    }
+
+    @SwipeMode
+    public int getSwipeMode() {
+        return mSwipeMode;
+    }
+
+    /**
+     * Sets how this view moves its content to show or hide the menus when it is swiped,
+     * either {@link #SWIPE_MODE_SCROLL} or {@link #SWIPE_MODE_TRANSLATE}.
+     * The current swipe offset will be reset to 0.
+     */
+    public void setSwipeMode(@SwipeMode int mode) {
+        if (mSwipeMode == mode) return;
+        getAnimationDriver().finish(this);
+        setSwipeOffset(0);
+        mSwipeMode = mode;
+        // 平移模式下菜单位于内容之下，需最后绘制内容使其覆盖在菜单之上
+        setChildrenDrawingOrderEnabled(mode == SWIPE_MODE_TRANSLATE || mContentDrawnOnTop);
+        requestLayout();
+    }
+
+    /**
+     * Sets whether the content should be drawn over the menus even in {@link #SWIPE_MODE_SCROLL}
+     * mode, for the menus that are translated beneath the content to stay at the edges of
+     * this view while it is being swiped.
+     */
+    void setContentDrawnOnTop(boolean onTop) {
+        if (mContentDrawnOnTop == onTop) return;
+        mContentDrawnOnTop = onTop;
+        setChildrenDrawingOrderEnabled(mSwipeMode == SWIPE_MODE_TRANSLATE || onTop);
+        invalidate();
+    }
+
+    /**
+     * @return the content view that is moved to uncover the menus when this view is swiped
+     */
+    public View getContentView() {
+        final View first = getChildAt(0);
+        if (first != null && mStartMenuId != 0 && first.getId() == mStartMenuId)
+            return getChildAt(1);
+        return first;
+    }
+
+    /**
+     * @return the offset of the content along the orientation of this view, with the same sign
+     * as {@link #getScrollX()} (or {@link #getScrollY()} in vertical orientation), i.e., positive
+     * when the content is moved to the left (or up) to uncover the (end) menu.
+     */
+    public int getSwipeOffset() {
+        final boolean vertical = getOrientation() == VERTICAL;
+        if (mSwipeMode == SWIPE_MODE_TRANSLATE) {
+            final View content = getContentView();
+            return content == null ? 0 :
+                    -Math.round(vertical ? content.getTranslationY() : content.getTranslationX());
+        }
+        return vertical ? getScrollY() : getScrollX();
+    }
+
+    /**
+     * Immediately moves the content to the given offset along the orientation of this view.
+     *
+     * @see #getSwipeOffset()
+     */
+    public void setSwipeOffset(int offset) {
+        final boolean vertical = getOrientation() == VERTICAL;
+        if (mSwipeMode == SWIPE_MODE_TRANSLATE) {
+            final View content = getContentView();
+            if (content == null) return;
+            final int oldOffset = getSwipeOffset();
+            if (oldOffset != offset) {
+                if (vertical) {
+                    content.setTranslationY(-offset);
+                    onScrollChanged(getScrollX(), offset, getScrollX(), oldOffset);
+                } else {
+                    content.setTranslationX(-offset);
+                    onScrollChanged(offset, getScrollY(), oldOffset, getScrollY());
+                }
+            }
+        } else if (vertical) {
+            scrollTo(getScrollX(), offset);
+        } else {
+            scrollTo(offset, getScrollY());
+        }
+    }
+
+    /**
+     * @return the scroll position of this view across its orientation, which is not used to
+     * move the content for swipes.
+     */
+    int getCrossScroll() {
+        return getOrientation() == VERTICAL ? getScrollX() : getScrollY();
     }
 
     /**
@@ -44,8 +398,19 @@ public class SmoothScrollableLinearLayout extends LinearLayout {
      */
     public void smoothScrollBy(int deltaX, int deltaY, int duration) {
         if (deltaX != 0 || deltaY != 0) {
-            mOverScroller.startScroll(getScrollX(), getScrollY(), -deltaX, -deltaY, duration);
-            invalidate();
+            // 沿布局方向的滚动用于移动内容，另一方向为普通的滚动
+            final boolean vertical = getOrientation() == VERTICAL;
+            final int delta = vertical ? deltaY : deltaX;
+            final int crossDelta = vertical ? deltaX : deltaY;
+
+            final ItemSwipeAnimationDriver driver = getAnimationDriver();
+            if (duration <= 0) {
+                // 不需要动画时，直接滚动到目标位置，以免延迟一帧
+                driver.finish(this);
+                onSwipeAnimationFrame(getSwipeOffset() - delta, getCrossScroll() - crossDelta);
+                return;
+            }
+            driver.start(this, getSwipeOffset(), getCrossScroll(), -delta, -crossDelta, duration);
         }
     }
 
@@ -57,52 +422,273 @@ public class SmoothScrollableLinearLayout extends LinearLayout {
      * @param duration duration of the scroll in milliseconds.
      */
     public void smoothScrollTo(int desX, int desY, int duration) {
-        final int scrollX = getScrollX();
-        final int scrollY = getScrollY();
+        final boolean vertical = getOrientation() == VERTICAL;
+        final int des = vertical ? desY : desX;
+        final int crossDes = vertical ? desX : desY;
 
-        final boolean finished = mOverScroller.isFinished();
-        if (finished && (-scrollX != desX || -scrollY != desY) ||
-                !finished && (mOverScroller.getFinalX() != desX || mOverScroller.getFinalY() != desY)) {
+        final ItemSwipeAnimationDriver driver = getAnimationDriver();
+        if (-driver.getFinalX(this) != des || -driver.getFinalY(this) != crossDes) {
 
-            final int deltaX = scrollX + desX;
-            final int deltaY = scrollY + desY;
-            smoothScrollBy(deltaX, deltaY, duration);
+            final int delta = getSwipeOffset() + des;
+            final int crossDelta = getCrossScroll() + crossDes;
+            smoothScrollBy(vertical ? crossDelta : delta, vertical ? delta : crossDelta, duration);
         }
     }
 
+    /**
+     * @return whether this view is smoothly scrolling to a position or not
+     */
+    public boolean isSmoothScrolling() {
+        return getAnimationDriver().isAnimating(this);
+    }
+
+    /**
+     * Called by the animation driver on each frame of a smooth scroll of this view.
+     * In {@link #SWIPE_MODE_TRANSLATE} mode, this only changes the translation of the content,
+     * which does not require this view to be redrawn.
+     *
+     * @param offset      the swipe offset
+     * @param crossScroll the scroll position across the orientation of this view
+     */
+    void onSwipeAnimationFrame(int offset, int crossScroll) {
+        if (crossScroll != getCrossScroll()) {
+            if (getOrientation() == VERTICAL)
+                scrollTo(crossScroll, getScrollY());
+            else
+                scrollTo(getScrollX(), crossScroll);
+        }
+        setSwipeOffset(offset);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // 停止动画，以免view被移除或回收后仍在滚动
+        if (mOwnAnimationDriver != null)
+            mOwnAnimationDriver.finishAll();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final View startMenu = getStartMenuView();
+        final View content = getContentView();
+        if (startMenu == null || content == null) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+
+        // 有开始端菜单时，LinearLayout会将内容挤向结束端并压缩其尺寸，
+        // 因此内容独自占满整个view，菜单只依据其自身的布局参数测量，且只测量一次
+        measureChildWithMargins(content, widthMeasureSpec, 0, heightMeasureSpec, 0);
+        final MarginLayoutParams contentLp = (MarginLayoutParams) content.getLayoutParams();
+        final int width = resolveSize(content.getMeasuredWidth() + contentLp.leftMargin
+                + contentLp.rightMargin + getPaddingLeft() + getPaddingRight(), widthMeasureSpec);
+        final int height = resolveSize(content.getMeasuredHeight() + contentLp.topMargin
+                + contentLp.bottomMargin + getPaddingTop() + getPaddingBottom(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+
+        final boolean vertical = getOrientation() == VERTICAL;
+        final int unspecified = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        final int crossSpec = MeasureSpec.makeMeasureSpec(vertical ? width : height, MeasureSpec.EXACTLY);
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (child == content || child.getVisibility() == GONE) continue;
+
+            final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+            if (vertical) {
+                child.measure(
+                        getChildMeasureSpec(crossSpec, getPaddingLeft() + getPaddingRight()
+                                + lp.leftMargin + lp.rightMargin, lp.width),
+                        getChildMeasureSpec(unspecified, lp.topMargin + lp.bottomMargin, lp.height));
+            } else {
+                child.measure(
+                        getChildMeasureSpec(unspecified, lp.leftMargin + lp.rightMargin, lp.width),
+                        getChildMeasureSpec(crossSpec, getPaddingTop() + getPaddingBottom()
+                                + lp.topMargin + lp.bottomMargin, lp.height));
+            }
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        final View startMenu = getStartMenuView();
+        final View content = getContentView();
+        // 有开始端菜单时，由onMeasure()自行测量，LinearLayout的布局所需的测量信息不可用
+        final boolean selfMeasured = startMenu != null && content != null;
+        if (!selfMeasured)
+            super.onLayout(changed, l, t, r, b);
+        if (content == null || startMenu == null && mSwipeMode == SWIPE_MODE_SCROLL) return;
+
+        final boolean vertical = getOrientation() == VERTICAL;
+        final boolean rtl = !vertical
+                && SDK_INT >= JELLY_BEAN_MR1 && getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+        final boolean translate = mSwipeMode == SWIPE_MODE_TRANSLATE;
+
+        if (selfMeasured) {
+            // 内容始终贴着开始端，所有子view都贴着左上角（rtl时为右上角）
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                View child = getChildAt(i);
+                final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+                final int top = getPaddingTop() + lp.topMargin;
+                final int left = rtl ? r - l - getPaddingRight() - lp.rightMargin - child.getMeasuredWidth()
+                        : getPaddingLeft() + lp.leftMargin;
+                child.layout(left, top, left + child.getMeasuredWidth(), top + child.getMeasuredHeight());
+            }
+        }
+
+        // 滚动模式下，菜单分别位于内容的两侧之外；平移模式下，菜单位于内容之下，
+        // 平移内容后即可露出。以下的“前侧”指左侧（竖直方向时为上侧），“后侧”指右侧（下侧）
+        int leadingMenusSize = 0;
+        int trailingMenusSize = 0;
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (child == content || child.getVisibility() == GONE) continue;
+            final int size = vertical ? child.getMeasuredHeight() : child.getMeasuredWidth();
+            if (child == startMenu ^ rtl)
+                leadingMenusSize += size;
+            else
+                trailingMenusSize += size;
+        }
+        final int contentStart = vertical ? content.getTop() : content.getLeft();
+        final int contentEnd = vertical ? content.getBottom() : content.getRight();
+        int leadingMenuPos = translate ? contentStart : contentStart - leadingMenusSize;
+        int trailingMenuPos = translate ? contentEnd - trailingMenusSize : contentEnd;
+        for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+            View child = getChildAt(i);
+            if (child == content || child.getVisibility() == GONE) continue;
+
+            final int pos;
+            if (child == startMenu ^ rtl) {
+                pos = leadingMenuPos;
+                leadingMenuPos += vertical ? child.getMeasuredHeight() : child.getMeasuredWidth();
+            } else {
+                pos = trailingMenuPos;
+                trailingMenuPos += vertical ? child.getMeasuredHeight() : child.getMeasuredWidth();
+            }
+            if (vertical)
+                child.layout(child.getLeft(), pos, child.getRight(), pos + child.getMeasuredHeight());
+            else
+                child.layout(pos, child.getTop(), pos + child.getMeasuredWidth(), child.getBottom());
+        }
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        final int action = ev.getAction() & MotionEvent.ACTION_MASK;
+        if (action == MotionEvent.ACTION_DOWN) {
+            // API 21以下，touch事件的派发不遵循自定义的绘制顺序；即使在之后的版本中，
+            // 内容不可点击时事件也会被传给其下的菜单。因此只在菜单已露出的区域内对其进行命中测试
+            mTouchRoutedToContent = (mSwipeMode == SWIPE_MODE_TRANSLATE || mContentDrawnOnTop)
+                    && isTouchOnContent(ev);
+        }
+        if (!mTouchRoutedToContent)
+            return super.dispatchTouchEvent(ev);
+
+        final boolean handled = dispatchTouchEventToContent(ev);
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
+            mTouchRoutedToContent = false;
+        return handled;
+    }
+
+    private boolean isTouchOnContent(MotionEvent ev) {
+        final View content = getContentView();
+        if (content == null || content.getVisibility() != VISIBLE) return false;
+        final float x = ev.getX() + getScrollX() - content.getTranslationX();
+        final float y = ev.getY() + getScrollY() - content.getTranslationY();
+        return x >= content.getLeft() && x < content.getRight()
+                && y >= content.getTop() && y < content.getBottom();
+    }
+
+    private boolean dispatchTouchEventToContent(MotionEvent ev) {
+        final View content = getContentView();
+        if (content == null) return false;
+        final float offsetX = getScrollX() - content.getLeft() - content.getTranslationX();
+        final float offsetY = getScrollY() - content.getTop() - content.getTranslationY();
+        ev.offsetLocation(offsetX, offsetY);
+        final boolean handled = content.dispatchTouchEvent(ev);
+        ev.offsetLocation(-offsetX, -offsetY);
+        return handled;
+    }
+
+    @Override
+    protected int getChildDrawingOrder(int childCount, int i) {
+        // 最后绘制内容，使其覆盖在菜单之上
+        final int contentIndex = indexOfChild(getContentView());
+        if (contentIndex < 0)
+            return i;
+        if (i == childCount - 1)
+            return contentIndex;
+        return i < contentIndex ? i : i + 1;
+    }
+
     @Override
-    public void computeScroll() {
-        // 重写computeScroll()方法，并在其内部完成平滑滚动的逻辑
-        if (mOverScroller.computeScrollOffset()) {
-            scrollTo(mOverScroller.getCurrX(), mOverScroller.getCurrY());
-            invalidate();
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        // 只绘制已露出的菜单
+        final View content = getContentView();
+        if (child != content && content != null) {
+            final boolean vertical = getOrientation() == VERTICAL;
+            final int childStart = vertical ? child.getTop() : child.getLeft();
+            final int childEnd = vertical ? child.getBottom() : child.getRight();
+            if (mSwipeMode == SWIPE_MODE_TRANSLATE) {
+                // 平移模式下，菜单被内容完全覆盖
+                final float translation = vertical ? content.getTranslationY() : content.getTranslationX();
+                if (childStart >= (vertical ? content.getTop() : content.getLeft()) + translation
+                        && childEnd <= (vertical ? content.getBottom() : content.getRight()) + translation)
+                    return false;
+            } else {
+                // 滚动模式下，菜单完全位于可见区域之外
+                final int scroll = vertical ? getScrollY() : getScrollX();
+                if (childEnd <= scroll || childStart >= scroll + (vertical ? getHeight() : getWidth()))
+                    return false;
+            }
         }
+        return super.drawChild(canvas, child, drawingTime);
     }
 
     @Override
     protected void onScrollChanged(int l, int t, int oldl, int oldt) {
         super.onScrollChanged(l, t, oldl, oldt);
-        if (mOnScrollChangeListeners != null)
-            for (OnScrollChangeListener listener : mOnScrollChangeListeners)
+        final OnScrollChangeListener[] listeners = mOnScrollChangeListeners;
+        if (listeners != null)
+            for (OnScrollChangeListener listener : listeners)
                 listener.onScrollChange(this, l, t, oldl, oldt);
     }
 
-    private Set<OnScrollChangeListener> mOnScrollChangeListeners;
-
     public void addOnScrollChangeListener(OnScrollChangeListener listener) {
-        if (mOnScrollChangeListeners == null)
-            mOnScrollChangeListeners = new ArraySet<>();
-        mOnScrollChangeListeners.add(listener);
+        final OnScrollChangeListener[] listeners = mOnScrollChangeListeners;
+        if (listeners == null) {
+            mOnScrollChangeListeners = new OnScrollChangeListener[]{listener};
+            return;
+        }
+        for (OnScrollChangeListener l : listeners)
+            if (l == listener) return;
+
+        OnScrollChangeListener[] newListeners = new OnScrollChangeListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = listener;
+        mOnScrollChangeListeners = newListeners;
     }
 
     public void removeOnScrollChangeListener(OnScrollChangeListener listener) {
-        if (mOnScrollChangeListeners != null)
-            mOnScrollChangeListeners.remove(listener);
+        final OnScrollChangeListener[] listeners = mOnScrollChangeListeners;
+        if (listeners == null) return;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                if (listeners.length == 1) {
+                    mOnScrollChangeListeners = null;
+                } else {
+                    OnScrollChangeListener[] newListeners = new OnScrollChangeListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, newListeners, 0, i);
+                    System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                    mOnScrollChangeListeners = newListeners;
+                }
+                return;
+            }
+        }
     }
 
     public void clearOnScrollChangeListeners(OnScrollChangeListener listener) {
-        if (mOnScrollChangeListeners != null)
-            mOnScrollChangeListeners.clear();
+        mOnScrollChangeListeners = null;
     }
 
     /**
@@ -0,0 +1,205 @@
+package com.liuzhenlin.overscroll;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * An {@link RecyclerView.ItemDecoration} for vertical lists that shows a header above the first
+ * item of each section and pins the header of the current section to the top of the list,
+ * pushed up by the next one as it scrolls in.
+ * <p>
+ * Each header view is measured, laid out and drawn only once per section, into a bitmap that
+ * is kept in a small LRU cache, so scrolling within or across the cached sections only costs
+ * bitmap draws. The headers are positioned from the decorated bounds of the items,
+ * so that they move with the content while a {@link SwipeMenuRecyclerView} over-scrolls.
+ * The headers are just drawn and do not receive touch events.
+ * <p>
+ * The space above the first item of each section is reserved through the item offsets,
+ * which RecyclerView caches for each item until it is rebound or the item decorations are
+ * invalidated. So, besides the contents of the headers changing, {@link #invalidateHeaders()}
+ * should also be called after any data change that moves a section boundary onto an item
+ * that is not rebound, e.g., when the first item of a section is removed.
+ */
+public class StickyHeaderItemDecoration extends RecyclerView.ItemDecoration {
+    // @formatter:off
+    /** 不属于任何分组的item，其上方不显示头部 */
+    public static final long NO_SECTION = -1L;
+
+    /** 最多缓存的头部位图的数量 */
+    private static final int MAX_CACHED_HEADERS = 8;
+
+    private final SectionCallback mCallback;
+
+    /** 各分组的头部渲染成的位图，以分组的id为键 */
+    private final LruCache<Long, Bitmap> mHeaderCache = new LruCache<>(MAX_CACHED_HEADERS);
+    /** 缓存的位图所对应的列表内容宽度，宽度改变后需重新渲染 */
+    private int mCachedHeaderWidth;
+
+    /** 重用于渲染各分组头部的view */
+    private View mHeaderView;
+
+    /** 最近一次装饰的列表，用于在头部改变后使其重新计算各item的偏移量 */
+    private RecyclerView mParent;
+
+    private final Rect mBounds = new Rect();
+    // @formatter:on
+
+    public StickyHeaderItemDecoration(@NonNull SectionCallback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Discards all the rendered headers and invalidates the cached item offsets of the list,
+     * which should be called when the contents of the headers change or a section boundary
+     * moves onto an item that is not rebound, so that the headers will be rendered again
+     * when they are next drawn and the space reserved for them will be recomputed.
+     */
+    public void invalidateHeaders() {
+        mHeaderCache.evictAll();
+        if (mParent != null)
+            mParent.invalidateItemDecorations();
+    }
+
+    @Override
+    public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
+        mParent = parent;
+        final int position = parent.getChildAdapterPosition(view);
+        if (position == RecyclerView.NO_POSITION || !isFirstInSection(position)) {
+            outRect.set(0, 0, 0, 0);
+            return;
+        }
+        final Bitmap header = getHeader(parent, mCallback.getSectionId(position));
+        outRect.set(0, header == null ? 0 : header.getHeight(), 0, 0);
+    }
+
+    @Override
+    public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        mParent = parent;
+        final int childCount = parent.getChildCount();
+        if (childCount == 0) return;
+
+        final RecyclerView.LayoutManager lm = parent.getLayoutManager();
+        final int left = parent.getPaddingLeft();
+        final int edge = parent.getClipToPadding() ? parent.getPaddingTop() : 0;
+
+        // 最上方仍可见的item所在的分组，其头部固定在列表的顶部
+        View topChild = null;
+        for (int i = 0; i < childCount; i++) {
+            View child = parent.getChildAt(i);
+            lm.getDecoratedBoundsWithMargins(child, mBounds);
+            if (mBounds.bottom + child.getTranslationY() > edge) {
+                topChild = child;
+                break;
+            }
+        }
+        if (topChild == null) return;
+        final int topPosition = parent.getChildAdapterPosition(topChild);
+        final long pinnedSection = topPosition == RecyclerView.NO_POSITION ?
+                NO_SECTION : mCallback.getSectionId(topPosition);
+        final Bitmap pinnedHeader = pinnedSection == NO_SECTION ? null : getHeader(parent, pinnedSection);
+
+        // 其余分组的头部绘制在各自的第一个item之上，同时找出下一个分组的头部的位置
+        float nextHeaderTop = Float.MAX_VALUE;
+        boolean pinnedHeaderInPlace = false;
+        for (int i = 0; i < childCount; i++) {
+            View child = parent.getChildAt(i);
+            final int position = parent.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION || !isFirstInSection(position)) continue;
+
+            final long section = mCallback.getSectionId(position);
+            final Bitmap header = getHeader(parent, section);
+            if (header == null) continue;
+
+            lm.getDecoratedBoundsWithMargins(child, mBounds);
+            final float top = mBounds.top + child.getTranslationY();
+            if (section == pinnedSection) {
+                // 分组的头部仍在原位时，随内容一同移动（如过度滚动时）而不固定在顶部
+                if (top > edge) {
+                    pinnedHeaderInPlace = true;
+                    c.drawBitmap(header, left, top, null);
+                }
+                continue;
+            }
+            if (top >= edge && top < nextHeaderTop)
+                nextHeaderTop = top;
+            c.drawBitmap(header, left, top, null);
+        }
+
+        if (pinnedHeader != null && !pinnedHeaderInPlace) {
+            // 被下一个分组的头部推出顶部
+            final float top = Math.min(edge, nextHeaderTop - pinnedHeader.getHeight());
+            c.drawBitmap(pinnedHeader, left, top, null);
+        }
+    }
+
+    private boolean isFirstInSection(int position) {
+        final long section = mCallback.getSectionId(position);
+        return section != NO_SECTION
+                && (position == 0 || mCallback.getSectionId(position - 1) != section);
+    }
+
+    /**
+     * @return the rendered header of the given section, rendering it only if it is not cached
+     */
+    @Nullable
+    private Bitmap getHeader(RecyclerView parent, long section) {
+        final int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (width <= 0) return null;
+        if (width != mCachedHeaderWidth) {
+            mCachedHeaderWidth = width;
+            mHeaderCache.evictAll();
+        }
+
+        Bitmap header = mHeaderCache.get(section);
+        if (header == null) {
+            header = renderHeader(parent, section, width);
+            if (header != null)
+                mHeaderCache.put(section, header);
+        }
+        return header;
+    }
+
+    @Nullable
+    private Bitmap renderHeader(RecyclerView parent, long section, int width) {
+        final View view = mCallback.getSectionHeaderView(parent, section, mHeaderView);
+        mHeaderView = view;
+
+        final ViewGroup.LayoutParams lp = view.getLayoutParams();
+        final int heightSpec = lp == null || lp.height < 0 ?
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED)
+                : View.MeasureSpec.makeMeasureSpec(lp.height, View.MeasureSpec.EXACTLY);
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY), heightSpec);
+        final int height = view.getMeasuredHeight();
+        if (height <= 0) return null;
+        view.layout(0, 0, width, height);
+
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        view.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    public interface SectionCallback {
+        /**
+         * @return the id of the section the item at the given adapter position belongs to,
+         * or {@link #NO_SECTION} if it does not belong to any section.
+         */
+        long getSectionId(int position);
+
+        /**
+         * Returns the view showing the header of the given section, which will be measured to
+         * the width of the list and drawn into a bitmap reused until the section is evicted from
+         * the cache or {@link #invalidateHeaders()} is called.
+         *
+         * @param convertView the view returned last time, which can be rebound and returned
+         */
+        @NonNull
+        View getSectionHeaderView(@NonNull RecyclerView parent, long sectionId, @Nullable View convertView);
+    }
+}
@@ -6,30 +6,43 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Handler;
+import android.support.annotation.ColorInt;
+import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.util.ArraySet;
 import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.StaggeredGridLayoutManager;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.animation.AnimationUtils;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.widget.LinearLayout;
+import android.widget.OverScroller;
 
 import com.liuzhenlin.overscroll.listener.OverFlyingDetector;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Field;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 import static android.os.Build.VERSION.SDK_INT;
 import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR1;
@@ -89,6 +102,75 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
      */
     private static final int VIEW_FLAG_OVERSCROLL_ENABLED = 1 << 5;
 
+    /**
+     * 标志adapter的数据已整体改变且列表尚未重新布局，此时itemView的位置均无效，
+     * 不能据此判断item是否已被移除
+     */
+    private static final int VIEW_FLAG_ITEM_POSITIONS_INVALIDATED = 1 << 6;
+
+    /** 标志存在已绑定的itemView需在布局后才能确定其菜单完全滑开时的偏移量 */
+    private static final int VIEW_FLAG_ITEM_OPEN_OFFSETS_UNRESOLVED = 1 << 7;
+
+    /**
+     * 标志itemView的菜单由列表统一缓存，只在itemView被滑开时才添加到其中
+     * @see #setItemMenuPoolingEnabled(boolean)
+     */
+    private static final int VIEW_FLAG_ITEM_MENU_POOLING_ENABLED = 1 << 8;
+
+    /**
+     * 标志itemView被滑动时，其菜单被渲染到layer中，直至完全滑开时才恢复绘制实时的菜单
+     * @see #setItemMenuSnapshotEnabled(boolean)
+     */
+    private static final int VIEW_FLAG_ITEM_MENU_SNAPSHOT_ENABLED = 1 << 9;
+
+    /** 标志当前触摸的itemView有水平开始端的菜单 */
+    private static final int VIEW_FLAG_ITEM_HAS_START_MENU = 1 << 10;
+
+    /**
+     * 标志本次手势中itemView沿竖直方向滑动，即列表沿水平方向布局时，在手指按下时确定
+     * @see #isItemSwipeVertical()
+     */
+    private static final int VIEW_FLAG_ITEM_SWIPE_VERTICAL = 1 << 11;
+
+    /**
+     * 标志itemView可以被滑过其菜单直至移出列表，以将其删除
+     * @see #setItemSwipeToDismissEnabled(boolean)
+     */
+    private static final int VIEW_FLAG_ITEM_SWIPE_TO_DISMISS_ENABLED = 1 << 12;
+
+    /**
+     * 标志列表在顶部（或水平开始端）被拉过一定距离后松手时刷新
+     * @see #setRefreshEnabled(boolean)
+     */
+    private static final int VIEW_FLAG_REFRESH_ENABLED = 1 << 13;
+
+    /** 标志列表正在刷新，此时顶部（或水平开始端）的回弹停在刷新位置 */
+    private static final int VIEW_FLAG_REFRESHING = 1 << 14;
+
+    /**
+     * 标志正在加载更多的数据，在{@link #setLoadingMore(boolean)}被调用以结束加载之前，
+     * 不会再次通知{@link OnLoadMoreListener}
+     */
+    private static final int VIEW_FLAG_LOADING_MORE = 1 << 15;
+
+    /**
+     * 标志adapter通知了item的改变，其itemView可能被原地重新绑定而不会重新依附于窗口，
+     * 需在布局后重新应用所记录的滑动状态
+     */
+    private static final int VIEW_FLAG_ITEMS_REBOUND = 1 << 16;
+
+    /**
+     * 标志adapter已被替换，旧adapter的itemView在下一次布局完成前仍可能被移除或回收，
+     * 此时不记录其滑动状态，以免旧item的状态被当作新adapter中同一键的item的状态
+     */
+    private static final int VIEW_FLAG_ADAPTER_CHANGING = 1 << 17;
+
+    /**
+     * 标志有stable ID的item被删除，需在布局后清除不再存在于adapter中的item的滑动状态，
+     * 包括那些被删除时不在屏幕上的item
+     */
+    private static final int VIEW_FLAG_ITEM_IDS_REMOVED = 1 << 18;
+
     private int mActivePointerId = INVALID_POINTER;
 
     private int mDownX;
@@ -99,6 +181,24 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
 
     private VelocityTracker mVelocityTracker;
 
+    /**
+     * 本次手势的仲裁结果，一经确定，在手指抬起前不再改变
+     * @see #arbitrateGesture()
+     */
+    private int mGestureState = GESTURE_UNDECIDED;
+    /** 尚未确定手势是滑动itemView还是滚动列表 */
+    private static final int GESTURE_UNDECIDED = 0;
+    /** 手势用于滑动itemView */
+    private static final int GESTURE_ITEM_SWIPE = 1;
+    /** 手势用于滚动（或过度滚动）列表 */
+    private static final int GESTURE_LIST_SCROLL = 2;
+
+    /** 手势方向与itemView滑动方向的夹角的正切值不超过此值（夹角不超过40°）时，判定为滑动itemView */
+    private static final float GESTURE_ITEM_SWIPE_MAX_SLOPE = (float) Math.tan(Math.toRadians(40));
+
+    /** 手指移动速度不小于此值时，移动半个touch slop即可确定手势，不必等到移动一个touch slop */
+    private final float mGestureEarlyCommitMinVelocity; // 400 dp/s
+
     /** 当前滚动的itemView */
     private SmoothScrollableLinearLayout mItemView;
     /** 上次滚动的itemView */
@@ -109,10 +209,85 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
     /** 当前所触摸itemView的菜单的边界范围（相对于当前view） */
     private final Rect mTouchedItemMenuBounds = new Rect();
 
+    /**
+     * 各view type的itemView的菜单宽度，不能滑动的view type对应{@link #ITEM_MENU_WIDTH_NOT_SWIPEABLE}，
+     * 在每次布局或adapter改变时清空
+     */
+    private final SparseIntArray mItemMenuWidths = new SparseIntArray();
+    private static final int ITEM_MENU_WIDTH_NOT_SWIPEABLE = -1;
+    /** 各view type的itemView的水平开始端菜单的宽度 */
+    private final SparseIntArray mItemStartMenuWidths = new SparseIntArray();
+
     /** itemView向水平开始端滚动时的最大滚动距离 */
     private int mItemMaxScrollDistFromEndToStart;
-    /** itemView向水平结束端滚动时的最大滚动距离 */
-    private int mItemMaxScrollDistFromStartToEnd; // 10 dp
+    /** itemView向水平结束端滚动时的最大滚动距离，即开始端菜单的宽度，没有开始端菜单时为回弹距离 */
+    private int mItemMaxScrollDistFromStartToEnd;
+    /** itemView没有开始端菜单时，向水平结束端滚动的回弹距离 */
+    private int mItemSpringBackDist; // 10 dp
+
+    /** itemView的滑动方式 */
+    @SmoothScrollableLinearLayout.SwipeMode
+    private int mItemSwipeMode = SmoothScrollableLinearLayout.SWIPE_MODE_SCROLL;
+
+    /** 各item的滑动偏移量，以item的stable ID（或adapter中的位置）为键，不持有itemView的引用 */
+    private final ItemSwipeStateStore mItemSwipeStates = new ItemSwipeStateStore();
+
+    /**
+     * 不在屏幕上的item的菜单被要求打开时，由于不知道其菜单的宽度，先记录此值，
+     * 待其被绑定并布局后再替换为实际的偏移量
+     */
+    private static final int ITEM_SWIPE_OFFSET_OPEN = Integer.MIN_VALUE;
+
+    private final AdapterDataObserver mItemSwipeStatesObserver = new AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            mViewFlags |= VIEW_FLAG_ITEM_POSITIONS_INVALIDATED | VIEW_FLAG_ITEMS_REBOUND;
+            // 没有stable ID时无法再对应各item之前的状态
+            if (!hasStableIds()) {
+                mItemSwipeStates.clear();
+                mDismissedItems.clear();
+            } else {
+                mViewFlags |= VIEW_FLAG_ITEM_IDS_REMOVED;
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            mViewFlags |= VIEW_FLAG_ITEMS_REBOUND;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (!hasStableIds()) {
+                mItemSwipeStates.offsetPositions(positionStart, itemCount);
+                mDismissedItems.offsetPositions(positionStart, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (!hasStableIds()) {
+                mItemSwipeStates.offsetPositions(positionStart, -itemCount);
+                mDismissedItems.offsetPositions(positionStart, -itemCount);
+            } else {
+                mViewFlags |= VIEW_FLAG_ITEM_IDS_REMOVED;
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (!hasStableIds()) {
+                mItemSwipeStates.movePosition(fromPosition, toPosition);
+                mDismissedItems.movePosition(fromPosition, toPosition);
+            }
+        }
+    };
+
+    /** 统一驱动所有itemView的平滑滚动 */
+    private final ItemSwipeAnimationDriver mItemAnimationDriver = new ItemSwipeAnimationDriver(this);
+
+    /** 写时复制，以便在回调中添加或移除监听器 */
+    private OnItemMenuAnimationListener[] mOnItemMenuAnimationListeners;
 
     /** 松手后使itemView自动滚动的最小手势速度 */
     private final float mAutoScrollItemMinVelocityX; // 200 dp/s
@@ -152,6 +327,9 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
     private int mAnimFlags;
     private static final int ANIM_FLAG_HEADER_ANIM_RUNNING = 1;
     private static final int ANIM_FLAG_FOOTER_ANIM_RUNNING = 1 << 1;
+
+    /** @see #setDebugOverlayEnabled(boolean) */
+    private OverScrollDebugOverlay mDebugOverlay;
     // @formatter:on
 
     public boolean isDraggingItemView() {
@@ -162,12 +340,71 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         return (mViewFlags & VIEW_FLAG_ITEM_FULL_SCROLLED) != 0;
     }
 
+    /**
+     * @return whether there is any itemView smoothly scrolling to show or hide its menu
+     */
+    public boolean isItemMenuAnimating() {
+        return mItemAnimationDriver.isAnimating();
+    }
+
+    /**
+     * Adds a listener to be notified when the itemViews start to smoothly scroll to show or
+     * hide their menus, e.g., to follow the frames rendered during the animations.
+     *
+     * @see #isItemMenuAnimating()
+     */
+    public void addOnItemMenuAnimationListener(@NonNull OnItemMenuAnimationListener listener) {
+        final OnItemMenuAnimationListener[] listeners = mOnItemMenuAnimationListeners;
+        if (listeners == null) {
+            mOnItemMenuAnimationListeners = new OnItemMenuAnimationListener[]{listener};
+            return;
+        }
+        for (OnItemMenuAnimationListener l : listeners)
+            if (l == listener) return;
+
+        OnItemMenuAnimationListener[] newListeners = new OnItemMenuAnimationListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = listener;
+        mOnItemMenuAnimationListeners = newListeners;
+    }
+
+    public void removeOnItemMenuAnimationListener(@NonNull OnItemMenuAnimationListener listener) {
+        final OnItemMenuAnimationListener[] listeners = mOnItemMenuAnimationListeners;
+        if (listeners == null) return;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                if (listeners.length == 1) {
+                    mOnItemMenuAnimationListeners = null;
+                } else {
+                    OnItemMenuAnimationListener[] newListeners =
+                            new OnItemMenuAnimationListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, newListeners, 0, i);
+                    System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                    mOnItemMenuAnimationListeners = newListeners;
+                }
+                return;
+            }
+        }
+    }
+
+    public interface OnItemMenuAnimationListener {
+        /**
+         * Called when an itemView starts to smoothly scroll to show or hide its menu
+         * while no other itemViews are doing so.
+         *
+         * @param parent the SwipeMenuRecyclerView the itemView belongs to
+         */
+        void onItemMenuAnimationStart(@NonNull SwipeMenuRecyclerView parent);
+    }
+
     public boolean isItemScrollingEnabled() {
         return (mViewFlags & VIEW_FLAG_ITEM_SCROLLING_ENABLED) != 0;
     }
 
     /**
-     * Only works on vertical layout
+     * Sets whether the itemViews can be swiped to show their menus. This works with any
+     * layout manager: the itemViews are swiped across the direction in which the list scrolls,
+     * i.e., horizontally in a vertical list and vertically in a horizontal one.
      */
     public void setItemScrollingEnabled(boolean enabled) {
         if (enabled)
@@ -181,16 +418,266 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
     }
 
     /**
-     * Only works on vertical layout and that scrolling itemView is enabled
+     * Sets whether an itemView without a start menu springs back after it is dragged towards
+     * its end (or its bottom, when swiped vertically in a horizontal list).
+     * Only works when scrolling itemViews is enabled.
+     *
+     * @see #setItemScrollingEnabled(boolean)
      */
     public void setItemSpringBackEnabled(boolean enabled) {
         if (enabled) {
             mViewFlags |= VIEW_FLAG_ITEM_SPRING_BACK_ENABLED;
-            mItemMaxScrollDistFromStartToEnd = (int) (10f * mDp + 0.5f);
+            mItemSpringBackDist = (int) (10f * mDp + 0.5f);
         } else {
             mViewFlags &= ~VIEW_FLAG_ITEM_SPRING_BACK_ENABLED;
-            mItemMaxScrollDistFromStartToEnd = 0;
+            mItemSpringBackDist = 0;
+        }
+    }
+
+    @SmoothScrollableLinearLayout.SwipeMode
+    public int getItemSwipeMode() {
+        return mItemSwipeMode;
+    }
+
+    /**
+     * Sets how the itemViews move their content to show or hide their menus.
+     * <p>
+     * In {@link SmoothScrollableLinearLayout#SWIPE_MODE_TRANSLATE} mode, only the content of
+     * the swiped itemView is translated, so that each frame of the swipe is just a render
+     * property change rather than a scroll that redraws the whole itemView, and its menus
+     * are not drawn at all until uncovered.
+     */
+    public void setItemSwipeMode(@SmoothScrollableLinearLayout.SwipeMode int mode) {
+        if (mItemSwipeMode == mode) return;
+        mItemSwipeMode = mode;
+        releaseItemViewInternal(mItemView, 0);
+        releaseItemViewInternal(mLastItemView, 0);
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (child instanceof SmoothScrollableLinearLayout)
+                ((SmoothScrollableLinearLayout) child).setSwipeMode(mode);
+        }
+    }
+
+    @Override
+    public void onChildAttachedToWindow(View child) {
+        super.onChildAttachedToWindow(child);
+        if (child instanceof SmoothScrollableLinearLayout) {
+            SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+            itemView.setAnimationDriver(mItemAnimationDriver);
+            itemView.setSwipeMode(mItemSwipeMode);
+            itemView.addOnScrollChangeListener(mItemMenuRevealer);
+            itemView.setContentDrawnOnTop(mItemMenuRevealStyle == ITEM_MENU_REVEAL_STYLE_OVERLAY);
+
+            // 恢复item之前的滑动状态，同时避免被复用的itemView保留其之前所绑定item的状态
+            applyItemSwipeState(itemView);
+        }
+    }
+
+    /**
+     * Applies the recorded swipe offset of the item bound to the given itemView to it,
+     * when it is attached or rebound in place.
+     */
+    private void applyItemSwipeState(SmoothScrollableLinearLayout itemView) {
+        final int offset = mItemSwipeStates.get(getItemSwipeStateKey(itemView));
+        if (offset == ITEM_SWIPE_OFFSET_OPEN) {
+            // itemView尚未测量，在布局后再滑开其菜单
+            itemView.setSwipeOffset(0);
+            mViewFlags |= VIEW_FLAG_ITEM_OPEN_OFFSETS_UNRESOLVED;
+        } else {
+            // 菜单被回收了的itemView需重新添加菜单后再滑开
+            if (offset != 0)
+                inflateItemMenuIfNeeded(itemView);
+            itemView.setSwipeOffset(offset);
+        }
+        // 已被滑出但尚未从adapter中删除的item不被视为已滑开
+        if (offset != 0 && !isItemDismissPending(itemView)) {
+            mLastItemView = itemView;
+            mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
+        } else if (itemView == mLastItemView) {
+            mLastItemView = null;
+            mViewFlags &= ~VIEW_FLAG_ITEM_FULL_SCROLLED;
+        }
+        // 被复用的itemView的菜单可能仍保留着之前的显示效果
+        applyItemMenuReveal(itemView);
+    }
+
+    @Override
+    public void onChildDetachedFromWindow(View child) {
+        super.onChildDetachedFromWindow(child);
+        if (child instanceof SmoothScrollableLinearLayout) {
+            SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+            // 停止被移除或回收的itemView的动画，并记录其最终的滑动状态
+            itemView.setAnimationDriver(null);
+            itemView.removeOnScrollChangeListener(mItemMenuRevealer);
+            itemView.releaseMenuSnapshot();
+            // adapter被替换后，旧adapter的itemView的状态与新adapter中的item无关，不再记录
+            if ((mViewFlags & VIEW_FLAG_ADAPTER_CHANGING) == 0)
+                recordDetachedItemSwipeState(itemView);
+
+            // 不再持有已被移除或回收的itemView的引用
+            if (itemView == mItemView) {
+                mItemView = null;
+                mViewFlags &= ~VIEW_FLAG_ITEM_TOUCHED_SCROLL;
+            }
+            if (itemView == mLastItemView) {
+                mLastItemView = null;
+                mViewFlags &= ~VIEW_FLAG_ITEM_FULL_SCROLLED;
+            }
+
+            // 回收被移除或回收的itemView的菜单，其滑动状态已记录下来
+            if ((mViewFlags & VIEW_FLAG_ITEM_MENU_POOLING_ENABLED) != 0)
+                recycleItemMenu(itemView);
+        }
+    }
+
+    private void recordDetachedItemSwipeState(SmoothScrollableLinearLayout itemView) {
+        final ViewHolder holder = getChildViewHolder(itemView);
+        if ((mViewFlags & VIEW_FLAG_ITEM_POSITIONS_INVALIDATED) != 0) {
+            // 位置已无效，只能依据stable ID记录
+            if (hasStableIds())
+                mItemSwipeStates.put(holder.getItemId(), itemView.getSwipeOffset());
+        } else if (holder.getAdapterPosition() == NO_POSITION) {
+            // item已被移除
+            if (hasStableIds())
+                mItemSwipeStates.remove(holder.getItemId());
+        } else {
+            mItemSwipeStates.put(getItemSwipeStateKey(itemView), itemView.getSwipeOffset());
+        }
+    }
+
+    @Override
+    public void setAdapter(Adapter adapter) {
+        onAdapterChanging(adapter);
+        super.setAdapter(adapter);
+    }
+
+    @Override
+    public void swapAdapter(Adapter adapter, boolean removeAndRecycleExistingViews) {
+        onAdapterChanging(adapter);
+        super.swapAdapter(adapter, removeAndRecycleExistingViews);
+    }
+
+    private void onAdapterChanging(Adapter adapter) {
+        final Adapter oldAdapter = getAdapter();
+        if (oldAdapter == adapter) return;
+        if (oldAdapter != null)
+            oldAdapter.unregisterAdapterDataObserver(mItemSwipeStatesObserver);
+        if (adapter != null)
+            adapter.registerAdapterDataObserver(mItemSwipeStatesObserver);
+        mItemSwipeStates.clear();
+        mDismissedItems.clear();
+        removeCallbacks(mDispatchItemsDismissedRunnable);
+        mViewFlags &= ~VIEW_FLAG_LOADING_MORE;
+        mItemMenuWidths.clear();
+        mItemStartMenuWidths.clear();
+        mItemMenuPool.clear();
+        // 新adapter中的item与之前的无关，旧的itemView被移除或回收时不再记录其状态，
+        // 而被原地绑定到新item的itemView需在布局后恢复其新item的状态
+        mViewFlags = mViewFlags & ~VIEW_FLAG_ITEM_IDS_REMOVED
+                | VIEW_FLAG_ADAPTER_CHANGING | VIEW_FLAG_ITEM_POSITIONS_INVALIDATED | VIEW_FLAG_ITEMS_REBOUND;
+    }
+
+    /**
+     * Forgets the swipe states of the items whose stable IDs no longer exist in the adapter,
+     * which are left behind if they were removed while off screen.
+     */
+    private void pruneRemovedItemSwipeStates() {
+        final Adapter adapter = getAdapter();
+        final int stateCount = mItemSwipeStates.size();
+        if (adapter == null || stateCount == 0) return;
+
+        final long[] keys = new long[stateCount];
+        for (int i = mItemSwipeStates.capacity() - 1, j = 0; i >= 0; i--) {
+            if (mItemSwipeStates.valueAt(i) != 0)
+                keys[j++] = mItemSwipeStates.keyAt(i);
+        }
+        // 找到的键与未找到的键分别移到数组的前后两部分
+        int foundCount = 0;
+        for (int position = adapter.getItemCount() - 1; position >= 0 && foundCount < stateCount;
+             position--) {
+            final long id = adapter.getItemId(position);
+            for (int i = foundCount; i < stateCount; i++) {
+                if (keys[i] == id) {
+                    keys[i] = keys[foundCount];
+                    keys[foundCount++] = id;
+                    break;
+                }
+            }
+        }
+        for (int i = foundCount; i < stateCount; i++)
+            mItemSwipeStates.remove(keys[i]);
+    }
+
+    private boolean hasStableIds() {
+        final Adapter adapter = getAdapter();
+        return adapter != null && adapter.hasStableIds();
+    }
+
+    /**
+     * @return the stable ID of the item bound to the given itemView if the adapter has
+     * stable IDs, or else its adapter position.
+     */
+    private long getItemSwipeStateKey(View itemView) {
+        final ViewHolder holder = getChildViewHolder(itemView);
+        if (hasStableIds())
+            return holder.getItemId();
+        final int position = holder.getAdapterPosition();
+        return position == NO_POSITION ? holder.getLayoutPosition() : position;
+    }
+
+    /**
+     * Smoothly scrolls the given itemView to the given position and records the swipe offset
+     * of its item, so that the item will be restored to that state when it is bound again.
+     */
+    private void smoothScrollItemViewTo(SmoothScrollableLinearLayout itemView, int des, int duration) {
+        if (itemView.getOrientation() == VERTICAL)
+            itemView.smoothScrollTo(0, des, duration);
+        else
+            itemView.smoothScrollTo(des, 0, duration);
+        mItemSwipeStates.put(getItemSwipeStateKey(itemView), -des);
+    }
+
+    /**
+     * @return whether the itemViews are swiped vertically in the current gesture,
+     * i.e., across a horizontally laid out list.
+     */
+    private boolean isItemSwipeVertical() {
+        return (mViewFlags & VIEW_FLAG_ITEM_SWIPE_VERTICAL) != 0;
+    }
+
+    /**
+     * @return the axis along which the itemViews should be swiped, perpendicular to
+     * the direction in which the list scrolls, or {@link #NO_ORIENTATION} if it is unknown.
+     */
+    private int getItemSwipeOrientation() {
+        switch (getLayoutOrientation()) {
+            case VERTICAL:
+                return HORIZONTAL;
+            case HORIZONTAL:
+                return VERTICAL;
         }
+        // 自定义的LayoutManager，按其可滚动的方向确定
+        final LayoutManager lm = getLayoutManager();
+        if (lm == null || lm.canScrollVertically() == lm.canScrollHorizontally())
+            return NO_ORIENTATION;
+        return lm.canScrollVertically() ? HORIZONTAL : VERTICAL;
+    }
+
+    /**
+     * @return whether the swipe offsets of the given itemView are mirrored, i.e., it is swiped
+     * horizontally in a right-to-left layout.
+     */
+    private boolean isItemSwipeReversed(SmoothScrollableLinearLayout itemView) {
+        return itemView.getOrientation() == HORIZONTAL && isLayoutRtl();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mItemAnimationDriver.finishAll();
+        // 不再等待，立即回调已被滑出的item
+        dispatchItemsDismissed();
     }
 
     public boolean isOverScrollEnabled() {
@@ -230,6 +717,45 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         return mOverScrollDist;
     }
 
+    /**
+     * 获取列表当前过度滚动的偏移量（不包括列表原有的padding）
+     */
+    @SuppressLint("SwitchIntDef")
+    private int getOverScrollOffset() {
+        switch (mOverScrollEdge) {
+            case OVERSCROLL_EDGE_TOP:
+            case OVERSCROLL_EDGE_TOP_OR_BOTTOM:
+                return getPaddingTop() - mPaddingTop;
+            case OVERSCROLL_EDGE_BOTTOM:
+                return getPaddingBottom() - mPaddingBottom;
+            case OVERSCROLL_EDGE_START:
+            case OVERSCROLL_EDGE_START_OR_END:
+                return (SDK_INT >= JELLY_BEAN_MR1 ? getPaddingStart() : getPaddingLeft()) - mPaddingStart;
+            case OVERSCROLL_EDGE_END:
+                return (SDK_INT >= JELLY_BEAN_MR1 ? getPaddingEnd() : getPaddingRight()) - mPaddingEnd;
+        }
+        return 0;
+    }
+
+    public boolean isDebugOverlayEnabled() {
+        return mDebugOverlay != null;
+    }
+
+    /**
+     * Sets whether to draw an overlay on top of this view that plots the live over-scroll
+     * distance, finger velocity, resistance factor and frame durations, for debugging only.
+     */
+    public void setDebugOverlayEnabled(boolean enabled) {
+        if (enabled == (mDebugOverlay != null)) return;
+        if (enabled) {
+            mDebugOverlay = new OverScrollDebugOverlay(this);
+        } else {
+            mDebugOverlay.release();
+            mDebugOverlay = null;
+        }
+        invalidate();
+    }
+
     public SwipeMenuRecyclerView(Context context) {
         this(context, null);
     }
@@ -253,6 +779,23 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
         mDp = context.getResources().getDisplayMetrics().density;
         mAutoScrollItemMinVelocityX = mDp * 200f;
+        mGestureEarlyCommitMinVelocity = mDp * 400f;
+        mItemAnimationDriver.setCallback(new ItemSwipeAnimationDriver.Callback() {
+            @Override
+            public void onSwipeAnimationsStart() {
+                final OnItemMenuAnimationListener[] listeners = mOnItemMenuAnimationListeners;
+                if (listeners != null)
+                    for (OnItemMenuAnimationListener listener : listeners)
+                        listener.onItemMenuAnimationStart(SwipeMenuRecyclerView.this);
+            }
+
+            @Override
+            public void onSwipeAnimationEnd(SmoothScrollableLinearLayout row) {
+                // 完全滑开或隐藏后，恢复绘制实时的菜单
+                row.releaseMenuSnapshot();
+                recycleItemMenuIfClosed(row);
+            }
+        });
 
         TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.SwipeMenuRecyclerView, defStyle, 0);
         setOverScrollEnabled(a.getBoolean(R.styleable
@@ -261,6 +804,26 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                 .SwipeMenuRecyclerView_itemScrollingEnabled, true));
         setItemSpringBackEnabled(a.getBoolean(R.styleable
                 .SwipeMenuRecyclerView_itemSpringBackEnabled, true));
+        setItemSwipeMode(a.getInt(R.styleable.SwipeMenuRecyclerView_itemSwipeMode,
+                SmoothScrollableLinearLayout.SWIPE_MODE_SCROLL));
+        setItemMenuPoolingEnabled(a.getBoolean(R.styleable
+                .SwipeMenuRecyclerView_itemMenuPoolingEnabled, false));
+        setItemMenuSnapshotEnabled(a.getBoolean(R.styleable
+                .SwipeMenuRecyclerView_itemMenuSnapshotEnabled, false));
+        setItemSwipeToDismissEnabled(a.getBoolean(R.styleable
+                .SwipeMenuRecyclerView_itemSwipeToDismissEnabled, false));
+        setItemMenuRevealStyle(a.getInt(R.styleable.SwipeMenuRecyclerView_itemMenuRevealStyle,
+                ITEM_MENU_REVEAL_STYLE_NONE));
+        setRefreshEnabled(a.getBoolean(R.styleable.SwipeMenuRecyclerView_refreshEnabled, false));
+        mRefreshThreshold = mDp * 72f;
+        mRefreshHoldOffset = (int) (mDp * 56f + 0.5f);
+        mProgressIndicatorPaint.setStyle(Paint.Style.STROKE);
+        mProgressIndicatorPaint.setStrokeCap(Paint.Cap.ROUND);
+        mProgressIndicatorPaint.setStrokeWidth(mDp * 2.5f);
+        mProgressIndicatorPaint.setColor(a.getColor(
+                R.styleable.SwipeMenuRecyclerView_refreshIndicatorColor, DEFAULT_REFRESH_INDICATOR_COLOR));
+        mLoadMoreThreshold = a.getInt(R.styleable.SwipeMenuRecyclerView_loadMoreThreshold,
+                DEFAULT_LOAD_MORE_THRESHOLD);
         a.recycle();
 
         if (DEBUG)
@@ -319,6 +882,108 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         return SDK_INT >= JELLY_BEAN_MR1 && getLayoutDirection() == LAYOUT_DIRECTION_RTL;
     }
 
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        // 旧adapter的itemView均已在本次布局中被移除、回收或重新绑定
+        mViewFlags &= ~(VIEW_FLAG_ITEM_POSITIONS_INVALIDATED | VIEW_FLAG_ADAPTER_CHANGING);
+        if ((mViewFlags & VIEW_FLAG_ITEM_IDS_REMOVED) != 0) {
+            mViewFlags &= ~VIEW_FLAG_ITEM_IDS_REMOVED;
+            if (hasStableIds())
+                pruneRemovedItemSwipeStates();
+        }
+        // 每次布局中itemView及其菜单都可能被重新测量，菜单宽度可能随之改变，
+        // 即使列表本身的尺寸未变（如item内容改变或菜单的布局参数改变）
+        mItemMenuWidths.clear();
+        mItemStartMenuWidths.clear();
+        // 被原地重新绑定的itemView不会回调onChildAttachedToWindow()，需在此恢复其item的滑动状态
+        if ((mViewFlags & VIEW_FLAG_ITEMS_REBOUND) != 0) {
+            mViewFlags &= ~VIEW_FLAG_ITEMS_REBOUND;
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                View child = getChildAt(i);
+                if (!(child instanceof SmoothScrollableLinearLayout)) continue;
+
+                SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+                if (itemView.isSmoothScrolling() || itemView == mItemView && isDraggingItemView()
+                        || itemView.getSwipeOffset() == mItemSwipeStates.get(getItemSwipeStateKey(itemView)))
+                    continue;
+                applyItemSwipeState(itemView);
+            }
+        }
+        if ((mViewFlags & VIEW_FLAG_ITEM_OPEN_OFFSETS_UNRESOLVED) != 0) {
+            mViewFlags &= ~VIEW_FLAG_ITEM_OPEN_OFFSETS_UNRESOLVED;
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                View child = getChildAt(i);
+                if (!(child instanceof SmoothScrollableLinearLayout)) continue;
+
+                SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+                final long key = getItemSwipeStateKey(itemView);
+                if (mItemSwipeStates.get(key) == ITEM_SWIPE_OFFSET_OPEN) {
+                    final int offset = getItemOpenSwipeOffset(itemView);
+                    itemView.setSwipeOffset(offset);
+                    mItemSwipeStates.put(key, offset);
+                }
+            }
+        }
+        if (mDebugOverlay != null)
+            mDebugOverlay.onLayout(isOverScrolling());
+    }
+
+    @Override
+    public boolean fling(int velocityX, int velocityY) {
+        final boolean flung = super.fling(velocityX, velocityY);
+        // 在惯性滑动开始时即根据其预计的终点判断是否需要加载更多，而不必等到列表滚动至底部
+        if (flung && mOnLoadMoreListener != null)
+            tryLoadMore(predictFlingDistance(velocityX, velocityY));
+        return flung;
+    }
+
+    @Override
+    public void onScrolled(int dx, int dy) {
+        super.onScrolled(dx, dy);
+        if (mOnLoadMoreListener != null && (dx != 0 || dy != 0))
+            tryLoadMore(0);
+        // 列表滚动时，随之逐帧收起已滑开的itemView：偏移量在本次滚动的同一帧内设置，
+        // 无需额外的布局或动画，也不会与下一次触摸时才开始的隐藏动画相冲突
+        if (mItemSwipeStates.isEmpty() || dx == 0 && dy == 0) return;
+
+        final int distance = Math.abs(dx) + Math.abs(dy);
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (!(child instanceof SmoothScrollableLinearLayout)) continue;
+
+            SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+            final int offset = itemView.getSwipeOffset();
+            if (offset == 0 || itemView.isSmoothScrolling()
+                    || itemView == mItemView && isDraggingItemView() || isItemDismissPending(itemView))
+                continue;
+
+            final int newOffset = offset > 0 ? Math.max(offset - distance, 0) : Math.min(offset + distance, 0);
+            itemView.setSwipeOffset(newOffset);
+            mItemSwipeStates.put(getItemSwipeStateKey(itemView), newOffset);
+            if (newOffset == 0) {
+                itemView.releaseMenuSnapshot();
+                recycleItemMenuIfClosed(itemView);
+                if (itemView == mItemView) mItemView = null;
+                if (itemView == mLastItemView) {
+                    mLastItemView = null;
+                    mViewFlags &= ~VIEW_FLAG_ITEM_FULL_SCROLLED;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void draw(Canvas c) {
+        super.draw(c);
+        if ((mViewFlags & VIEW_FLAG_REFRESH_ENABLED) != 0)
+            drawRefreshIndicator(c);
+        if (mOnLoadMoreListener != null)
+            drawLoadMoreFooter(c);
+        if (mDebugOverlay != null)
+            mDebugOverlay.draw(c, getOverScrollOffset(), mOverScrollState, mOverScrollEdge);
+    }
+
     /**
      * Returns the current orientation of the layout.
      *
@@ -342,6 +1007,10 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                     mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED_ON_ACTION_DOWN;
                 else
                     mViewFlags &= ~VIEW_FLAG_ITEM_FULL_SCROLLED_ON_ACTION_DOWN;
+                mGestureState = GESTURE_UNDECIDED;
+                // 从手指按下时开始追踪速度，以便在手势的最初几个事件中就能据此确定手势
+                initVelocityTracker();
+                mVelocityTracker.clear();
             case MotionEvent.ACTION_POINTER_DOWN:
                 final int actionIndex = ev.getActionIndex();
                 mActivePointerId = ev.getPointerId(actionIndex);
@@ -366,11 +1035,15 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                 mActivePointerId = INVALID_POINTER;
                 break;
         }
+        if (mDebugOverlay != null)
+            mDebugOverlay.onTouchEvent(ev);
         // overflying
         if (isOverScrollEnabled() && getChildCount() > 0 && !isDraggingItemView()
                 && (mViewFlags & VIEW_FLAG_ITEM_FULL_SCROLLED_ON_ACTION_DOWN) == 0) {
             mOverflyingDetector.onTouchEvent(ev);
         }
+        if (mVelocityTracker != null)
+            mVelocityTracker.addMovement(ev);
         return super.dispatchTouchEvent(ev);
     }
 
@@ -407,28 +1080,61 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         boolean intercept = false;
         switch (e.getAction() & MotionEvent.ACTION_MASK) {
             case MotionEvent.ACTION_DOWN:
-                for (int i = getChildCount() - 1; i >= 0; i--) {
-                    View child = getChildAt(i);
-                    if (child.getVisibility() != VISIBLE) continue;
-
-                    child.getHitRect(mTouchedItemBounds);
-                    if (!mTouchedItemBounds.contains(mDownX, mDownY)) continue;
-
-                    if (!(child instanceof SmoothScrollableLinearLayout)) continue;
-                    mItemView = (SmoothScrollableLinearLayout) child;
-                    mItemMaxScrollDistFromEndToStart = mItemView.getChildCount() <= 1 ? 0 :
-                            mItemView.getChildAt(mItemView.getChildCount() - 1).getMeasuredWidth();
-                    break;
+                View child = null;
+                // 大多数情况下，手指按下的仍是上次触摸的itemView，先检查它；
+                // 否则仍由findChildViewUnder()逐个检查子View
+                if (mLastItemView != null && mLastItemView.getParent() == this) {
+                    mLastItemView.getHitRect(mTouchedItemBounds);
+                    if (mTouchedItemBounds.contains(mDownX, mDownY))
+                        child = mLastItemView;
+                }
+                if (child == null) {
+                    child = findChildViewUnder(mDownX, mDownY);
+                    if (child != null)
+                        child.getHitRect(mTouchedItemBounds);
+                }
+                // 每次手势开始时确定itemView的滑动方向，只有沿该方向排列的itemView才可被滑动
+                final int swipeOrientation = getItemSwipeOrientation();
+                if (swipeOrientation == VERTICAL)
+                    mViewFlags |= VIEW_FLAG_ITEM_SWIPE_VERTICAL;
+                else
+                    mViewFlags &= ~VIEW_FLAG_ITEM_SWIPE_VERTICAL;
+                if (child != null && child.getVisibility() == VISIBLE
+                        && child instanceof SmoothScrollableLinearLayout
+                        && ((SmoothScrollableLinearLayout) child).getOrientation() == swipeOrientation
+                        && !isItemDismissPending(child)) {
+                    final int menuWidth = getItemMenuWidth(child);
+                    if (menuWidth != ITEM_MENU_WIDTH_NOT_SWIPEABLE) {
+                        mItemView = (SmoothScrollableLinearLayout) child;
+                        mItemMaxScrollDistFromEndToStart = menuWidth;
+                        final int startMenuWidth = getItemStartMenuWidth(mItemView);
+                        if (startMenuWidth > 0) {
+                            mViewFlags |= VIEW_FLAG_ITEM_HAS_START_MENU;
+                            mItemMaxScrollDistFromStartToEnd = startMenuWidth;
+                        } else {
+                            mViewFlags &= ~VIEW_FLAG_ITEM_HAS_START_MENU;
+                            mItemMaxScrollDistFromStartToEnd = mItemSpringBackDist;
+                        }
+                    }
                 }
 
                 // 如果存在itemView被滑开
                 if ((mViewFlags & VIEW_FLAG_ITEM_FULL_SCROLLED_ON_ACTION_DOWN) != 0) {
                     if (mLastItemView == mItemView) {
-                        final int left = isLayoutRtl() ? 0 :
-                                mItemView.getRight() - mItemMaxScrollDistFromEndToStart;
-                        final int right = left + mItemMaxScrollDistFromEndToStart;
-                        mTouchedItemMenuBounds.set(left, mTouchedItemBounds.top,
-                                right, mTouchedItemBounds.bottom);
+                        final boolean rtl = isItemSwipeReversed(mItemView);
+                        final int offset = mItemView.getSwipeOffset();
+                        // 滑开的是左侧或上侧（ltr时为开始端）的菜单还是右侧或下侧的菜单
+                        final boolean leadingMenuShown = offset < 0;
+                        final int menuWidth = leadingMenuShown ^ rtl ?
+                                mItemMaxScrollDistFromStartToEnd : mItemMaxScrollDistFromEndToStart;
+                        final Rect bounds = mTouchedItemBounds;
+                        if (isItemSwipeVertical()) {
+                            final int top = leadingMenuShown ? bounds.top : bounds.bottom - menuWidth;
+                            mTouchedItemMenuBounds.set(bounds.left, top, bounds.right, top + menuWidth);
+                        } else {
+                            final int left = leadingMenuShown ? bounds.left : bounds.right - menuWidth;
+                            mTouchedItemMenuBounds.set(left, bounds.top, left + menuWidth, bounds.bottom);
+                        }
                         // 点击的是itemView被滑开后显示的菜单时，不拦截touch事件
                         if (mTouchedItemMenuBounds.contains(mDownX, mDownY))
                             break;
@@ -458,6 +1164,9 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                 break;
             case MotionEvent.ACTION_MOVE:
                 intercept = tryHandleItemScrollingEvent();
+                // 已判定为滑动itemView时，不再交由父类判断是否拦截以滚动列表
+                if (intercept || mGestureState == GESTURE_ITEM_SWIPE)
+                    return true;
                 // 点击的是itemView被滑开后显示的菜单时，不让父类拦截touch事件
                 // 只在itemView有发生左右滑动的趋势时，才拦截touch事件
                 if ((mViewFlags & VIEW_FLAG_ITEM_FULL_SCROLLED_ON_ACTION_DOWN) != 0
@@ -473,25 +1182,105 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         return intercept || super.onInterceptTouchEvent(e);
     }
 
+    /**
+     * Decides whether the current gesture swipes the touched itemView or scrolls the list,
+     * once the finger has moved by the touch slop, or by half of it if it moves fast.
+     * The decision is made on the angle between the direction of the movement (or of the
+     * velocity when it is committed early) and the axis the itemView is swiped along,
+     * and is kept until the gesture ends, so that neither handler needs to check it again.
+     *
+     * @return one of {@link #GESTURE_UNDECIDED}, {@link #GESTURE_ITEM_SWIPE}
+     * and {@link #GESTURE_LIST_SCROLL}
+     */
+    private int arbitrateGesture() {
+        if (mGestureState != GESTURE_UNDECIDED)
+            return mGestureState;
+        // 列表已开始被拖动
+        if (getScrollState() == SCROLL_STATE_DRAGGING)
+            return mGestureState = GESTURE_LIST_SCROLL;
+
+        final boolean vertical = isItemSwipeVertical();
+        final int absDX = Math.abs(mTouchX[mTouchX.length - 1] - mDownX);
+        final int absDY = Math.abs(mTouchY[mTouchY.length - 1] - mDownY);
+        // 沿itemView滑动方向及与之垂直的方向的移动距离
+        float along = vertical ? absDY : absDX;
+        float across = vertical ? absDX : absDY;
+        if (along < mTouchSlop && across < mTouchSlop) {
+            if (along < mTouchSlop / 2f && across < mTouchSlop / 2f || mVelocityTracker == null)
+                return GESTURE_UNDECIDED;
+
+            mVelocityTracker.computeCurrentVelocity(1000);
+            final float vx = Math.abs(mVelocityTracker.getXVelocity(mActivePointerId));
+            final float vy = Math.abs(mVelocityTracker.getYVelocity(mActivePointerId));
+            if (Math.max(vx, vy) < mGestureEarlyCommitMinVelocity)
+                return GESTURE_UNDECIDED;
+            // 快速移动时，以速度的方向确定手势
+            along = vertical ? vy : vx;
+            across = vertical ? vx : vy;
+        }
+        final boolean itemSwipe = isItemScrollingEnabled() && mItemView != null
+                && across <= along * GESTURE_ITEM_SWIPE_MAX_SLOPE;
+        return mGestureState = itemSwipe ? GESTURE_ITEM_SWIPE : GESTURE_LIST_SCROLL;
+    }
+
     private boolean tryHandleItemScrollingEvent() {
-        if (!(isItemScrollingEnabled() && getChildCount() > 0 && getLayoutOrientation() == VERTICAL))
+        if (!(isItemScrollingEnabled() && getChildCount() > 0))
             return false;
         // 不存在itemView被触摸
         if (mItemView == null) return false;
 
-        final int absDX = Math.abs(mTouchX[mTouchX.length - 1] - mDownX);
-        final int absDY = Math.abs(mTouchY[mTouchY.length - 1] - mDownY);
-        if (absDX > absDY && absDX >= mTouchSlop) {
+        if (arbitrateGesture() == GESTURE_ITEM_SWIPE) {
+            final boolean vertical = isItemSwipeVertical();
             mViewFlags |= VIEW_FLAG_ITEM_TOUCHED_SCROLL;
             getParent().requestDisallowInterceptTouchEvent(true);
-
-            // itemView滚动时不显示竖直滚动条
-            setVerticalScrollBarEnabled(false);
+            // 开始滑动时才加载菜单
+            mItemMaxScrollDistFromEndToStart = inflateItemMenuIfNeeded(mItemView);
+            if ((mViewFlags & VIEW_FLAG_ITEM_MENU_SNAPSHOT_ENABLED) != 0)
+                mItemView.snapshotMenu();
+
+            // itemView滚动时不显示列表的滚动条
+            if (vertical)
+                setHorizontalScrollBarEnabled(false);
+            else
+                setVerticalScrollBarEnabled(false);
+
+            // 立即滑动itemView，但减去touch slop，以免其在第一帧中突然跳过这段距离
+            final int[] touch = vertical ? mTouchY : mTouchX;
+            final int delta = (vertical ? mDownY : mDownX) - touch[touch.length - 1];
+            final int excess = Math.abs(delta) - mTouchSlop;
+            if (excess > 0)
+                dragItemViewBy(delta > 0 ? excess : -excess);
             return true;
         }
         return false;
     }
 
+    /**
+     * Drags the current itemView by the given distance of the finger movement, limited to
+     * the distances it can be swiped.
+     *
+     * @param dx the distance the finger moved towards the left (or the top for vertical swipes)
+     */
+    private void dragItemViewBy(int dx) {
+        final boolean rtl = isItemSwipeReversed(mItemView);
+        if (rtl) dx = -dx; // 向水平开始端滑动为正
+        final int scrollX = rtl ? -mItemView.getSwipeOffset() : mItemView.getSwipeOffset(); // 向水平开始端滚动为正
+        // 可删除itemView时，可将其滑过菜单直至完全移出列表
+        final int maxScrollDistFromEndToStart = isItemSwipeToDismissEnabled() ?
+                getItemDismissDistance(mItemView) : mItemMaxScrollDistFromEndToStart;
+        // 向水平开始端滑动至最大可滑动距离
+        if (dx + scrollX > maxScrollDistFromEndToStart) {
+            dx = maxScrollDistFromEndToStart - scrollX;
+            // 向水平结束端滑动至最大可滑动距离
+        } else if (scrollX + dx < -mItemMaxScrollDistFromStartToEnd) {
+            dx = -mItemMaxScrollDistFromStartToEnd - scrollX;
+        }
+        if (isItemSwipeVertical())
+            mItemView.smoothScrollBy(0, -dx, 0);
+        else
+            mItemView.smoothScrollBy(rtl ? dx : -dx, 0, 0);
+    }
+
     @SuppressLint("ClickableViewAccessibility")
     @Override
     public boolean onTouchEvent(MotionEvent e) {
@@ -500,6 +1289,7 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
                 recycleVelocityTracker();
+                mGestureState = GESTURE_UNDECIDED;
                 break;
         }
         return consume || super.onTouchEvent(e);
@@ -527,21 +1317,9 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
             case MotionEvent.ACTION_MOVE:
                 // 如果在滑动itemView
                 if (isDraggingItemView()) {
-                    initVelocityTracker();
-                    mVelocityTracker.addMovement(e);
-
-                    final boolean rtl = isLayoutRtl();
-                    int dx = mTouchX[mTouchX.length - 2] - mTouchX[mTouchX.length - 1];
-                    if (rtl) dx = -dx; // 向水平开始端滑动为正
-                    final int scrollX = rtl ? -mItemView.getScrollX() : mItemView.getScrollX(); // 向水平开始端滚动为正
-                    // 向水平开始端滑动至最大可滑动距离
-                    if (dx + scrollX > mItemMaxScrollDistFromEndToStart) {
-                        dx = mItemMaxScrollDistFromEndToStart - scrollX;
-                        // 向水平结束端滑动至最大可滑动距离
-                    } else if (scrollX + dx < -mItemMaxScrollDistFromStartToEnd) {
-                        dx = -mItemMaxScrollDistFromStartToEnd - scrollX;
-                    }
-                    mItemView.smoothScrollBy(rtl ? dx : -dx, 0, 0);
+                    // 竖直滑动时，以上、下分别对应水平的开始端、结束端
+                    final int[] touch = isItemSwipeVertical() ? mTouchY : mTouchX;
+                    dragItemViewBy(touch[touch.length - 2] - touch[touch.length - 1]);
                     // 消费当前touch事件且不调用父类onTouchEvent(e) --> 列表无法上下滚动
                     return true;
                 } else {
@@ -555,63 +1333,95 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                     mViewFlags &= ~VIEW_FLAG_ITEM_TOUCHED_SCROLL;
                     mLastItemView = mItemView;
 
-                    final boolean rtl = isLayoutRtl();
-                    final int scrollX = rtl ? -mItemView.getScrollX() : mItemView.getScrollX(); // 向水平开始端滚动为正
+                    final boolean vertical = isItemSwipeVertical();
+                    final boolean rtl = isItemSwipeReversed(mItemView);
+                    final int scrollX = rtl ? -mItemView.getSwipeOffset() : mItemView.getSwipeOffset(); // 向水平开始端滚动为正
 
-                    // 向水平结束端滑时
-                    if (scrollX < 0) {
+                    // 向水平结束端滑时，没有开始端菜单
+                    if (scrollX < 0 && (mViewFlags & VIEW_FLAG_ITEM_HAS_START_MENU) == 0) {
                         mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
                         // ltr: 从(10dp, 0)处向左平滑滚动20dp到(-10dp, 0)
-                        mItemView.smoothScrollTo(rtl ? mItemMaxScrollDistFromStartToEnd :
-                                -mItemMaxScrollDistFromStartToEnd, 0, DURATION_ITEM_SPRING_BACK);
+                        final int des = rtl ? mItemMaxScrollDistFromStartToEnd : -mItemMaxScrollDistFromStartToEnd;
+                        mItemView.smoothScrollTo(vertical ? 0 : des, vertical ? des : 0, DURATION_ITEM_SPRING_BACK);
                         // ltr: 从(-10dp, 0)处向右平滑滚动10dp回到原点
                         postDelayed(mItemSpringBackRunnable, DURATION_ITEM_SPRING_BACK);
 
                         // 滑至itemView的菜单完全隐藏
                     } else if (scrollX == 0f) {
                         mViewFlags &= ~VIEW_FLAG_ITEM_FULL_SCROLLED;
+                        mItemSwipeStates.put(getItemSwipeStateKey(mItemView), 0);
+                        mItemView.releaseMenuSnapshot();
+                        recycleItemMenuIfClosed(mItemView);
+
+                    } else {
+                        // 向水平开始端滑时露出结束端的菜单，向水平结束端滑时露出开始端的菜单，
+                        // 以下统一换算成露出菜单的方向为正
+                        final int sign = scrollX > 0 ? 1 : -1;
+                        final int menuWidth = sign > 0 ?
+                                mItemMaxScrollDistFromEndToStart : mItemMaxScrollDistFromStartToEnd;
+                        final int shownWidth = scrollX * sign;
+                        final int openX = rtl ? sign * menuWidth : -sign * menuWidth;
 
                         // 完全滑开
-                    } else if (scrollX == mItemMaxScrollDistFromEndToStart) {
-                        mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
+                        if (shownWidth == menuWidth) {
+                            mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
+                            mItemSwipeStates.put(getItemSwipeStateKey(mItemView), mItemView.getSwipeOffset());
+                            mItemView.releaseMenuSnapshot();
+                            return true;
+                        }
 
-                        // scrollX > 0f && scrollX < mItemMaxScrollDistFromEndToStart
-                    } else {
-                        final int dx = rtl ? mTouchX[mTouchX.length - 1] - mTouchX[mTouchX.length - 2]
-                                : mTouchX[mTouchX.length - 2] - mTouchX[mTouchX.length - 1]; // 向水平开始端滑动为正
+                        // shownWidth > 0f && shownWidth < menuWidth
+                        final int[] touch = vertical ? mTouchY : mTouchX;
+                        final int dx = sign * (rtl ? touch[touch.length - 1] - touch[touch.length - 2]
+                                : touch[touch.length - 2] - touch[touch.length - 1]); // 向露出菜单的方向滑动为正
 
                         mVelocityTracker.computeCurrentVelocity(1000);
-                        final float velocityX = mVelocityTracker.getXVelocity(mActivePointerId);
-                        // 向水平开始端滑时 手指抬起时的速度 >= 200dp/s --> itemView自动滚动以显示菜单
+                        final float velocityX = vertical ? mVelocityTracker.getYVelocity(mActivePointerId)
+                                : mVelocityTracker.getXVelocity(mActivePointerId);
+
+                        // 滑过菜单后，超过删除阈值或向露出菜单的方向快速滑动时删除itemView，否则停在菜单完全滑开处
+                        if (shownWidth > menuWidth) {
+                            final int dismissDist = getItemDismissDistance(mItemView);
+                            if (shownWidth >= dismissDist * ITEM_DISMISS_THRESHOLD
+                                    || dx > 0 && Math.abs(velocityX) >= mAutoScrollItemMinVelocityX) {
+                                final int duration = (int) (DURATION_ITEM_MENU_AUTO_SCROLL_OUT *
+                                        (float) (dismissDist - shownWidth) / dismissDist + 0.5f);
+                                dismissItemViewInternal(mItemView, duration);
+                            } else if (menuWidth > 0) {
+                                mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
+                                smoothScrollItemViewTo(mItemView, openX, DURATION_ITEM_MENU_AUTO_SCROLL_OUT / 2);
+                            } else {
+                                releaseItemViewInternal(mItemView, DURATION_ITEM_MENU_AUTO_SCROLL_OUT / 2);
+                            }
+                            return true;
+                        }
+                        // 向露出菜单的方向滑时 手指抬起时的速度 >= 200dp/s --> itemView自动滚动以显示菜单
                         if (dx > 0 && Math.abs(velocityX) >= mAutoScrollItemMinVelocityX) {
                             mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
                             final int duration = (int) (DURATION_ITEM_MENU_AUTO_SCROLL_OUT *
-                                    (float) (mItemMaxScrollDistFromEndToStart - scrollX)
-                                    / mItemMaxScrollDistFromEndToStart + 0.5f);
-                            mItemView.smoothScrollTo(rtl ? mItemMaxScrollDistFromEndToStart :
-                                    -mItemMaxScrollDistFromEndToStart, 0, duration);
+                                    (float) (menuWidth - shownWidth) / menuWidth + 0.5f);
+                            smoothScrollItemViewTo(mItemView, openX, duration);
 
-                            // 向水平结束端滑时 手指抬起时的速度 >= 200dp/s --> itemView自动滚动以隐藏菜单
+                            // 向隐藏菜单的方向滑时 手指抬起时的速度 >= 200dp/s --> itemView自动滚动以隐藏菜单
                         } else if (dx < 0 && Math.abs(velocityX) >= mAutoScrollItemMinVelocityX) {
                             final int duration = (int) (DURATION_ITEM_MENU_AUTO_SCROLL_OUT *
-                                    (float) scrollX / mItemMaxScrollDistFromEndToStart + 0.5f);
+                                    (float) shownWidth / menuWidth + 0.5f);
                             releaseItemViewInternal(mItemView, duration);
 
                         } else {
-                            final int middle = mItemMaxScrollDistFromEndToStart / 2;
+                            final int middle = menuWidth / 2;
                             // 滑动距离 < 最大可滑动距离的一半 --> itemView自动滚动以隐藏菜单
-                            if (scrollX < middle) {
+                            if (shownWidth < middle) {
                                 final int duration = (int) (DURATION_ITEM_MENU_AUTO_SCROLL_OUT / 2f *
-                                        scrollX / middle + 0.5f);
+                                        shownWidth / middle + 0.5f);
                                 releaseItemViewInternal(mItemView, duration);
 
                                 // 滑动距离 >= 最大可滑动距离的一半 --> itemView自动滚动以显示菜单
                             } else {
                                 mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
                                 final int duration = (int) (DURATION_ITEM_MENU_AUTO_SCROLL_OUT / 2f *
-                                        (mItemMaxScrollDistFromEndToStart - scrollX) / middle + 0.5f);
-                                mItemView.smoothScrollTo(rtl ? mItemMaxScrollDistFromEndToStart :
-                                        -mItemMaxScrollDistFromEndToStart, 0, duration);
+                                        (menuWidth - shownWidth) / middle + 0.5f);
+                                smoothScrollItemViewTo(mItemView, openX, duration);
                             }
                         }
                     }
@@ -636,9 +1446,149 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         releaseItemViewInternal(mItemView, DURATION_ITEM_MENU_AUTO_SCROLL_OUT);
     }
 
+    /**
+     * Opens the menu of the item at the given adapter position. If the item is not currently
+     * laid out, its menu will be shown opened once the item is bound.
+     *
+     * @param animate whether to smoothly scroll the itemView to show its menu,
+     *                only working when the item is on screen.
+     */
+    public void openItemMenu(int position, boolean animate) {
+        final Adapter adapter = getAdapter();
+        if (adapter == null || position < 0 || position >= adapter.getItemCount()) return;
+
+        final ViewHolder holder = findViewHolderForAdapterPosition(position);
+        if (holder != null && holder.itemView instanceof SmoothScrollableLinearLayout) {
+            SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) holder.itemView;
+            final int offset = getItemOpenSwipeOffset(itemView);
+            int duration = 0;
+            if (animate && offset != 0) {
+                duration = (int) (DURATION_ITEM_MENU_AUTO_SCROLL_OUT *
+                        (float) Math.abs(offset - itemView.getSwipeOffset()) / Math.abs(offset) + 0.5f);
+            }
+            smoothScrollItemViewTo(itemView, -offset, duration);
+            if (offset != 0) {
+                mLastItemView = itemView;
+                mViewFlags |= VIEW_FLAG_ITEM_FULL_SCROLLED;
+            }
+        } else {
+            mItemSwipeStates.put(adapter.hasStableIds() ? adapter.getItemId(position) : position,
+                    ITEM_SWIPE_OFFSET_OPEN);
+        }
+    }
+
+    /**
+     * Smoothly closes the menu of the item at the given adapter position,
+     * or just forgets its opened state if it is not currently laid out.
+     */
+    public void closeItemMenu(int position) {
+        final Adapter adapter = getAdapter();
+        if (adapter == null || position < 0 || position >= adapter.getItemCount()) return;
+
+        final ViewHolder holder = findViewHolderForAdapterPosition(position);
+        if (holder != null && holder.itemView instanceof SmoothScrollableLinearLayout) {
+            releaseItemViewInternal((SmoothScrollableLinearLayout) holder.itemView,
+                    DURATION_ITEM_MENU_AUTO_SCROLL_OUT);
+        } else {
+            mItemSwipeStates.remove(adapter.hasStableIds() ? adapter.getItemId(position) : position);
+        }
+    }
+
+    /**
+     * Closes the menus of all the items. The itemViews on screen are animated together,
+     * driven by the same callback on each frame, and the others just forget their opened states.
+     */
+    public void closeAllItemMenus() {
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (child instanceof SmoothScrollableLinearLayout) {
+                SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+                if (isItemDismissPending(itemView)) continue;
+                if (itemView.getSwipeOffset() != 0 || itemView.isSmoothScrolling())
+                    itemView.smoothScrollTo(0, 0, DURATION_ITEM_MENU_AUTO_SCROLL_OUT);
+            }
+        }
+        // 保留已被滑出但尚未从adapter中删除的item的偏移量
+        final long[] dismissedKeys = new long[mDismissedItems.size()];
+        final int[] dismissedOffsets = new int[dismissedKeys.length];
+        int dismissedCount = 0;
+        for (int i = mDismissedItems.capacity() - 1; i >= 0; i--) {
+            if (mDismissedItems.valueAt(i) != 0) {
+                dismissedKeys[dismissedCount] = mDismissedItems.keyAt(i);
+                dismissedOffsets[dismissedCount] = mItemSwipeStates.get(dismissedKeys[dismissedCount]);
+                dismissedCount++;
+            }
+        }
+        mItemSwipeStates.clear();
+        for (int i = 0; i < dismissedCount; i++)
+            mItemSwipeStates.put(dismissedKeys[i], dismissedOffsets[i]);
+        removeCallbacks(mItemSpringBackRunnable);
+        mViewFlags &= ~(VIEW_FLAG_ITEM_FULL_SCROLLED | VIEW_FLAG_ITEM_TOUCHED_SCROLL);
+        mItemView = mLastItemView = null;
+    }
+
+    /**
+     * @return the swipe offset of the given itemView when its menu is completely shown
+     */
+    private int getItemOpenSwipeOffset(SmoothScrollableLinearLayout itemView) {
+        final int menuWidth = inflateItemMenuIfNeeded(itemView);
+        return isItemSwipeReversed(itemView) ? -menuWidth : menuWidth;
+    }
+
+    /**
+     * @return the width of the start menu of the given itemView, which is cached for its view type
+     * @see SmoothScrollableLinearLayout#setStartMenuId(int)
+     */
+    private int getItemStartMenuWidth(SmoothScrollableLinearLayout itemView) {
+        final int viewType = getChildViewHolder(itemView).getItemViewType();
+        final int index = mItemStartMenuWidths.indexOfKey(viewType);
+        if (index >= 0)
+            return mItemStartMenuWidths.valueAt(index);
+
+        final View startMenu = itemView.getStartMenuView();
+        final int width = startMenu == null ? 0 : getItemMenuSize(itemView, startMenu);
+        if (itemView.getMeasuredWidth() > 0)
+            mItemStartMenuWidths.put(viewType, width);
+        return width;
+    }
+
+    /**
+     * @return the width of the menu of the given child, which is cached for its view type,
+     * or {@link #ITEM_MENU_WIDTH_NOT_SWIPEABLE} if it can not be swiped.
+     */
+    private int getItemMenuWidth(View child) {
+        final int viewType = getChildViewHolder(child).getItemViewType();
+        final int index = mItemMenuWidths.indexOfKey(viewType);
+        if (index >= 0)
+            return mItemMenuWidths.valueAt(index);
+
+        if (!(child instanceof SmoothScrollableLinearLayout)) {
+            mItemMenuWidths.put(viewType, ITEM_MENU_WIDTH_NOT_SWIPEABLE);
+            return ITEM_MENU_WIDTH_NOT_SWIPEABLE;
+        }
+        final SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+        // 菜单尚未加载，暂无法确定其宽度
+        if (itemView.isMenuInflationPending())
+            return 0;
+        final View menu = itemView.getMenuView();
+        final int menuWidth = menu == null ? 0 : getItemMenuSize(itemView, menu);
+        // 尚未测量的itemView不缓存
+        if (itemView.getMeasuredWidth() > 0)
+            mItemMenuWidths.put(viewType, menuWidth);
+        return menuWidth;
+    }
+
+    /**
+     * @return the size of the given menu along the orientation of the itemView,
+     * i.e., the distance the itemView can be swiped to uncover it.
+     */
+    private static int getItemMenuSize(SmoothScrollableLinearLayout itemView, View menu) {
+        return itemView.getOrientation() == VERTICAL ? menu.getMeasuredHeight() : menu.getMeasuredWidth();
+    }
+
     private void releaseItemViewInternal(SmoothScrollableLinearLayout itemView, int duration) {
         if (itemView != null) {
-            itemView.smoothScrollTo(0, 0, duration);
+            smoothScrollItemViewTo(itemView, 0, duration);
             mViewFlags &= ~VIEW_FLAG_ITEM_FULL_SCROLLED;
 
             if (itemView == mItemView) mItemView = null;
@@ -650,14 +1600,22 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
         if (!(isOverScrollEnabled() && getChildCount() > 0))
             return false;
 
+        // 手势已被判定为滑动itemView或尚未确定时，不处理过度滚动
+        if (arbitrateGesture() != GESTURE_LIST_SCROLL)
+            return false;
+
         final int absDX = Math.abs(mTouchX[mTouchX.length - 1] - mDownX);
         final int absDY = Math.abs(mTouchY[mTouchY.length - 1] - mDownY);
         final boolean canScrollHorizontally = getLayoutManager().canScrollHorizontally();
         final boolean canScrollVertically = getLayoutManager().canScrollVertically();
-        final boolean handle = canScrollVertically && absDY > absDX && absDY >= mTouchSlop
-                || canScrollHorizontally && absDX > absDY && absDX >= mTouchSlop;
-        if (handle)
-            setVerticalScrollBarEnabled(true);
+        final boolean handle = canScrollVertically && absDY > absDX
+                || canScrollHorizontally && absDX > absDY;
+        if (handle) {
+            if (canScrollVertically)
+                setVerticalScrollBarEnabled(true);
+            if (canScrollHorizontally)
+                setHorizontalScrollBarEnabled(true);
+        }
         return handle;
     }
 
@@ -679,8 +1637,8 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                             // itemView较少时，列表不能上下滚动 --> 不限制下拉和上拉
                             if (atTop && atBottom) {
                                 mOverScrollEdge = OVERSCROLL_EDGE_TOP_OR_BOTTOM;
-                                // 下拉
-                            } else if (atTop && dy > 0)
+                                // 下拉，或推回停在刷新位置的顶部
+                            } else if (atTop && (dy > 0 || getHeadOverScrollOffset() > 0))
                                 mOverScrollEdge = OVERSCROLL_EDGE_TOP;
                                 // 上拉
                             else if (atBottom && dy < 0)
@@ -695,8 +1653,8 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                             // itemView较少时，列表不能左右滚动 --> 不限制左右拉
                             if (atStart && atEnd) {
                                 mOverScrollEdge = OVERSCROLL_EDGE_START_OR_END;
-                                // 向水平结束端拉
-                            } else if (atStart && dx > 0)
+                                // 向水平结束端拉，或推回停在刷新位置的开始端
+                            } else if (atStart && (dx > 0 || getHeadOverScrollOffset() > 0))
                                 mOverScrollEdge = OVERSCROLL_EDGE_START;
                                 // 向水平开始端拉
                             else if (atEnd && dx < 0)
@@ -707,8 +1665,6 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                         deliverOverScrollStateChangeIfNeeded(OVERSCROLL_STATE_TOUCH_SCROLL);
                         return true;
                     case OVERSCROLL_STATE_TOUCH_SCROLL:
-                        initVelocityTracker();
-                        mVelocityTracker.addMovement(ev);
                         switch (mOverScrollEdge) {
                             case OVERSCROLL_EDGE_TOP: {
                                 final int deltaY = computeOverScrollDeltaY();
@@ -832,6 +1788,9 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                 }
                 break;
             case MotionEvent.ACTION_UP:
+                // 拉过刷新的阈值后松手，无论速度如何都开始刷新
+                if (mOverScrollState == OVERSCROLL_STATE_TOUCH_SCROLL && tryStartRefresh())
+                    break;
                 if (mVelocityTracker == null) break;
                 mVelocityTracker.computeCurrentVelocity(1000);
                 if (getLayoutManager().canScrollVertically()) {
@@ -866,13 +1825,18 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
             case OVERSCROLL_EDGE_BOTTOM:
             case OVERSCROLL_EDGE_TOP_OR_BOTTOM:
                 final int deltaY = mTouchY[mTouchY.length - 1] - mTouchY[mTouchY.length - 2];// 向下滑动为正
-                if (isPushingBack())
+                if (isPushingBack()) {
+                    if (mDebugOverlay != null)
+                        mDebugOverlay.setResistance(1f);
                     return deltaY;
-                else {
+                } else {
                     final float ratio = (Math.abs(getPaddingTop() - mPaddingTop)
                             + getPaddingBottom() - mPaddingBottom) /
                             ((getHeight() - mPaddingTop - mPaddingBottom) * 0.95f);
-                    return (int) (1d / (2d + Math.tan(Math.PI / 2d * ratio)) * deltaY);
+                    final double resistance = 1d / (2d + Math.tan(Math.PI / 2d * ratio));
+                    if (mDebugOverlay != null)
+                        mDebugOverlay.setResistance((float) resistance);
+                    return (int) (resistance * deltaY);
                 }
         }
         return 0;
@@ -886,14 +1850,19 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
             case OVERSCROLL_EDGE_START_OR_END:
                 final int deltaX = isLayoutRtl() ? -(mTouchX[mTouchX.length - 1] - mTouchX[mTouchX.length - 2])
                         : mTouchX[mTouchX.length - 1] - mTouchX[mTouchX.length - 2];// 向结束端滑动为正
-                if (isPushingBack())
+                if (isPushingBack()) {
+                    if (mDebugOverlay != null)
+                        mDebugOverlay.setResistance(1f);
                     return deltaX;
-                else {
+                } else {
                     final float ratio = (
                             Math.abs((SDK_INT >= JELLY_BEAN_MR1 ? getPaddingStart() : getPaddingLeft()) - mPaddingStart)
                                     + (SDK_INT >= JELLY_BEAN_MR1 ? getPaddingEnd() : getPaddingRight()) - mPaddingEnd) /
                             ((getWidth() - mPaddingStart - mPaddingEnd) * 0.95f);
-                    return (int) (1d / (2d + Math.tan(Math.PI / 2d * ratio)) * deltaX);
+                    final double resistance = 1d / (2d + Math.tan(Math.PI / 2d * ratio));
+                    if (mDebugOverlay != null)
+                        mDebugOverlay.setResistance((float) resistance);
+                    return (int) (resistance * deltaX);
                 }
         }
         return 0;
@@ -1011,6 +1980,21 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
     }
 
     public void smoothSpringBack() {
+        // 刷新时，顶部（或水平开始端）的回弹停在刷新位置
+        if ((mViewFlags & VIEW_FLAG_REFRESHING) != 0) {
+            final int offset = getHeadOverScrollOffset();
+            if (offset > 0) {
+                if (offset != mRefreshHoldOffset) {
+                    animateHeadOverScroll(getHeadPadding(), getHeadPadding() - offset + mRefreshHoldOffset,
+                            DURATION_SPRING_BACK);
+                } else {
+                    // 停在刷新位置即视为此次过度滚动结束，取消刷新时的回弹将作为新的一次过度滚动
+                    mOverScrollAnim = null;
+                    endOverScroll();
+                }
+                return;
+            }
+        }
         if (getPaddingTop() != mPaddingTop) {
             animateHeadOverScroll(getPaddingTop(), mPaddingTop, DURATION_SPRING_BACK);
         } else if (getPaddingBottom() != mPaddingBottom) {
@@ -1025,8 +2009,11 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
             } else {
                 mOverScrollAnim = null;
                 endOverScroll();
+                return;
             }
         }
+        if (mPropertyBinder != null)
+            mPropertyBinder.animateToStart(DURATION_SPRING_BACK, mInterpolator);
     }
 
     /**
@@ -1214,45 +2201,68 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
 
     private void deliverOverScrollStartEventIfNeeded(int edge) {
         if (!isOverScrolling() && mOnOverScrollListeners != null)
-            for (OnOverScrollListener listener : mOnOverScrollListeners)
-                listener.onOverScrollStart(this, edge);
+            mOnOverScrollListeners.dispatchOverScrollStart(edge);
     }
 
     private void deliverOverScrollStateChangeIfNeeded(int state) {
         if (mOverScrollState != state) {
             mOverScrollState = state;
+            if (mPropertyBinder != null)
+                mPropertyBinder.onOverScrollStateChanged(state);
             if (mOnOverScrollListeners != null)
-                for (OnOverScrollListener listener : mOnOverScrollListeners)
-                    listener.onOverScrollStateChange(this, mOverScrollState);
+                mOnOverScrollListeners.dispatchOverScrollStateChange(mOverScrollState);
         }
     }
 
     private void deliverOverScrollDistanceChangeIfNeeded(int dist) {
         if (mOverScrollDist != dist) {
             mOverScrollDist = dist;
+            if (mDebugOverlay != null)
+                mDebugOverlay.invalidate();
+            if (mPropertyBinder != null) {
+                final int offset = getOverScrollOffset();
+                mPropertyBinder.onOverScrollOffsetChanged(getLayoutManager().canScrollVertically(),
+                        mOverScrollEdge == OVERSCROLL_EDGE_BOTTOM || mOverScrollEdge == OVERSCROLL_EDGE_END ?
+                                -offset : offset);
+            }
             if (mOnOverScrollListeners != null)
-                for (OnOverScrollListener listener : mOnOverScrollListeners)
-                    listener.onOverScrollDistanceChange(this, mOverScrollDist);
+                mOnOverScrollListeners.dispatchOverScrollDistanceChange(mOverScrollDist);
         }
     }
 
     private void deliverOverScrollEndEventIfNeeded(int edge) {
         if (isOverScrolling() && mOnOverScrollListeners != null)
-            for (OnOverScrollListener listener : mOnOverScrollListeners)
-                listener.onOverScrollEnd(this, edge);
+            mOnOverScrollListeners.dispatchOverScrollEnd(edge);
     }
 
-    private Set<OnOverScrollListener> mOnOverScrollListeners;
+    private OverScrollListenerRegistry mOnOverScrollListeners;
 
     public void addOnOverScrollListener(OnOverScrollListener listener) {
+        addOnOverScrollListener(listener, DELIVERY_MODE_IMMEDIATE);
+    }
+
+    /**
+     * Adds a listener whose events will be delivered in the given {@link DeliveryMode mode}.
+     */
+    public void addOnOverScrollListener(OnOverScrollListener listener, @DeliveryMode int deliveryMode) {
+        if (mOnOverScrollListeners == null)
+            mOnOverScrollListeners = new OverScrollListenerRegistry(this);
+        mOnOverScrollListeners.add(listener, deliveryMode, null);
+    }
+
+    /**
+     * Adds a listener whose events will be delivered on the given executor, with the
+     * consecutive distance changes coalesced to the latest one, for heavy consumers.
+     */
+    public void addOnOverScrollListener(OnOverScrollListener listener, Executor executor) {
         if (mOnOverScrollListeners == null)
-            mOnOverScrollListeners = new ArraySet<>();
-        mOnOverScrollListeners.add(listener);
+            mOnOverScrollListeners = new OverScrollListenerRegistry(this);
+        mOnOverScrollListeners.add(listener, DELIVERY_MODE_IMMEDIATE, executor);
     }
 
     public void removeOnOverScrollListener(OnOverScrollListener listener) {
         if (mOnOverScrollListeners != null)
-            mOnOverScrollListeners.add(listener);
+            mOnOverScrollListeners.remove(listener);
     }
 
     public void clearOnOverScrollListeners() {
@@ -1260,6 +2270,793 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
             mOnOverScrollListeners.clear();
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // OverScroll Property Bindings
+    ///////////////////////////////////////////////////////////////////////////
+
+    private OverScrollPropertyBinder mPropertyBinder;
+
+    /**
+     * Binds a render property of another view to the over-scroll fraction of an edge of
+     * this view. All the bindings are applied in one batched pass per frame.
+     */
+    public void addOverScrollPropertyBinding(OverScrollPropertyBinding binding) {
+        if (mPropertyBinder == null)
+            mPropertyBinder = new OverScrollPropertyBinder(this);
+        mPropertyBinder.add(binding);
+    }
+
+    public void removeOverScrollPropertyBinding(OverScrollPropertyBinding binding) {
+        if (mPropertyBinder != null)
+            mPropertyBinder.remove(binding);
+    }
+
+    public void clearOverScrollPropertyBindings() {
+        if (mPropertyBinder != null)
+            mPropertyBinder.clear();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Pull to Refresh
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static final int DEFAULT_REFRESH_INDICATOR_COLOR = 0xFF757575;
+
+    /** 刷新指示器转一圈的时间 */
+    private static final int REFRESH_INDICATOR_ROTATION_PERIOD = 1000; // ms
+
+    /** 列表被拉过此距离后松手时开始刷新 */
+    private float mRefreshThreshold; // 72 dp
+    /** 刷新时列表停留的过度滚动偏移量 */
+    private int mRefreshHoldOffset; // 56 dp
+
+    private OnRefreshListener mOnRefreshListener;
+
+    private final Paint mProgressIndicatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF mProgressIndicatorBounds = new RectF();
+
+    public boolean isRefreshEnabled() {
+        return (mViewFlags & VIEW_FLAG_REFRESH_ENABLED) != 0;
+    }
+
+    /**
+     * Sets whether this list refreshes when it is pulled down at the top (or towards the end
+     * at the start in horizontal layouts) past a threshold and released. While refreshing,
+     * the over-scroll holds at a refresh offset, with a progress indicator drawn directly on
+     * the canvas of this view in the gap, until {@link #setRefreshing(boolean)} is called
+     * with false.
+     * <p>
+     * This replaces wrapping the list in a SwipeRefreshLayout, which would compete with
+     * the over-scroll of this view for the same touch deltas.
+     *
+     * @see #setOnRefreshListener(OnRefreshListener)
+     */
+    public void setRefreshEnabled(boolean enabled) {
+        if (enabled) {
+            mViewFlags |= VIEW_FLAG_REFRESH_ENABLED;
+        } else {
+            mViewFlags &= ~VIEW_FLAG_REFRESH_ENABLED;
+            setRefreshing(false);
+        }
+    }
+
+    public void setOnRefreshListener(@Nullable OnRefreshListener listener) {
+        mOnRefreshListener = listener;
+    }
+
+    /**
+     * Sets the distance the list needs to be pulled to start refreshing, and the offset
+     * it holds at while refreshing.
+     */
+    public void setRefreshOffsets(float threshold, int holdOffset) {
+        mRefreshThreshold = threshold;
+        mRefreshHoldOffset = holdOffset;
+    }
+
+    public void setRefreshIndicatorColor(@ColorInt int color) {
+        mProgressIndicatorPaint.setColor(color);
+        invalidate();
+    }
+
+    public boolean isRefreshing() {
+        return (mViewFlags & VIEW_FLAG_REFRESHING) != 0;
+    }
+
+    /**
+     * Shows or hides the refreshing state. Setting it to true does not notify
+     * the {@link OnRefreshListener}; setting it to false springs the list back.
+     * <p>
+     * The over-scroll ends, and the state goes back to {@link #OVERSCROLL_STATE_IDLE},
+     * once the list settles at the refresh offset; the spring-back on hiding the refresh
+     * is then delivered as a new over-scroll.
+     */
+    public void setRefreshing(boolean refreshing) {
+        if (refreshing == isRefreshing()) return;
+        if (refreshing) {
+            if (!isRefreshEnabled()) return;
+            mViewFlags |= VIEW_FLAG_REFRESHING;
+            if (getLayoutManager() == null) return;
+            final int offset = getHeadOverScrollOffset();
+            if (mOverScrollState != OVERSCROLL_STATE_TOUCH_SCROLL && offset != mRefreshHoldOffset)
+                animateHeadOverScroll(getHeadPadding(), getHeadPadding() - offset + mRefreshHoldOffset,
+                        DURATION_SPRING_BACK);
+        } else {
+            mViewFlags &= ~VIEW_FLAG_REFRESHING;
+            if (mOverScrollState != OVERSCROLL_STATE_TOUCH_SCROLL && getHeadOverScrollOffset() > 0)
+                smoothSpringBack();
+        }
+        invalidate();
+    }
+
+    /**
+     * Starts refreshing if the list has been pulled past the threshold at its top (or start).
+     *
+     * @return true if the list starts refreshing and holds at the refresh offset
+     */
+    private boolean tryStartRefresh() {
+        if ((mViewFlags & (VIEW_FLAG_REFRESH_ENABLED | VIEW_FLAG_REFRESHING)) != VIEW_FLAG_REFRESH_ENABLED
+                || getHeadOverScrollOffset() < mRefreshThreshold)
+            return false;
+
+        mViewFlags |= VIEW_FLAG_REFRESHING;
+        smoothSpringBack();
+        if (mOnRefreshListener != null)
+            mOnRefreshListener.onRefresh(this);
+        return true;
+    }
+
+    /**
+     * @return the current padding of the top (or start) edge, along which the list scrolls
+     */
+    private int getHeadPadding() {
+        if (getLayoutManager().canScrollVertically())
+            return getPaddingTop();
+        return SDK_INT >= JELLY_BEAN_MR1 ? getPaddingStart() : getPaddingLeft();
+    }
+
+    /**
+     * @return the current over-scroll offset at the top (or start) edge, or 0 if the list
+     * is not over-scrolled at that edge.
+     */
+    private int getHeadOverScrollOffset() {
+        if (getLayoutManager() == null)
+            return 0;
+        return Math.max(getHeadPadding()
+                - (getLayoutManager().canScrollVertically() ? mPaddingTop : mPaddingStart), 0);
+    }
+
+    private void drawRefreshIndicator(Canvas c) {
+        final int offset = getHeadOverScrollOffset();
+        if (offset == 0) return;
+
+        // 绘制在过度滚动露出的空白区域的中间
+        if (getLayoutManager().canScrollVertically()) {
+            drawProgressIndicator(c, getWidth() / 2f, mPaddingTop + offset / 2f, offset, isRefreshing());
+        } else {
+            drawProgressIndicator(c,
+                    isLayoutRtl() ? getWidth() - mPaddingStart - offset / 2f : mPaddingStart + offset / 2f,
+                    getHeight() / 2f, offset, isRefreshing());
+        }
+    }
+
+    /**
+     * Draws a progress arc centered at the given point in the gap revealed by the over-scroll,
+     * which spins while the data is loading, or otherwise grows as the gap approaches
+     * the refresh threshold.
+     */
+    private void drawProgressIndicator(Canvas c, float cx, float cy, int offset, boolean loading) {
+        final float radius = Math.min(mDp * 10f, offset / 2f - mProgressIndicatorPaint.getStrokeWidth());
+        if (radius <= 0f) return;
+        mProgressIndicatorBounds.set(cx - radius, cy - radius, cx + radius, cy + radius);
+
+        final float startAngle, sweepAngle;
+        if (loading) {
+            // 加载时旋转，逐帧重绘直至加载结束或列表回弹
+            startAngle = 360f * (AnimationUtils.currentAnimationTimeMillis()
+                    % REFRESH_INDICATOR_ROTATION_PERIOD) / REFRESH_INDICATOR_ROTATION_PERIOD;
+            sweepAngle = 270f;
+            ViewCompat.postInvalidateOnAnimation(this);
+        } else {
+            // 拉动时随着与刷新阈值的接近程度逐渐画满
+            startAngle = -90f;
+            sweepAngle = 300f * Math.min(offset / mRefreshThreshold, 1f);
+        }
+        c.drawArc(mProgressIndicatorBounds, startAngle, sweepAngle, false, mProgressIndicatorPaint);
+    }
+
+    public interface OnRefreshListener {
+        /**
+         * Called when the list is released after being pulled past the refresh threshold.
+         * The data can be loaded asynchronously, after which {@link #setRefreshing(boolean)}
+         * should be called with false to spring the list back.
+         */
+        void onRefresh(@NonNull SwipeMenuRecyclerView view);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Load More
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static final int DEFAULT_LOAD_MORE_THRESHOLD = 5;
+
+    /** 预计距离最后一个item不超过此数量的item时，开始加载更多 */
+    private int mLoadMoreThreshold;
+
+    private OnLoadMoreListener mOnLoadMoreListener;
+
+    /** 用于预测惯性滑动的距离，与RecyclerView滚动时所用的OverScroller的物理模型一致 */
+    private OverScroller mFlingPredictor;
+
+    /**
+     * Sets the listener to be notified when more data should be loaded, which is as soon as
+     * the list is flung towards, or scrolled to, within {@link #setLoadMoreThreshold(int)
+     * a few items} of its tail. While the data is loading, a progress indicator is drawn
+     * in the gap revealed by the over-scroll at the bottom (or end) of the list.
+     */
+    public void setOnLoadMoreListener(@Nullable OnLoadMoreListener listener) {
+        mOnLoadMoreListener = listener;
+        if (listener == null)
+            mViewFlags &= ~VIEW_FLAG_LOADING_MORE;
+    }
+
+    /**
+     * Sets how many items away from the tail the list should be when more data is requested,
+     * which is {@value #DEFAULT_LOAD_MORE_THRESHOLD} by default.
+     */
+    public void setLoadMoreThreshold(int threshold) {
+        mLoadMoreThreshold = threshold;
+    }
+
+    public boolean isLoadingMore() {
+        return (mViewFlags & VIEW_FLAG_LOADING_MORE) != 0;
+    }
+
+    /**
+     * Sets whether more data is being loaded. This should be called with false once the data
+     * requested by the {@link OnLoadMoreListener} has been loaded (or failed to load),
+     * so that the listener can be notified again.
+     */
+    public void setLoadingMore(boolean loading) {
+        if (loading == isLoadingMore()) return;
+        if (loading)
+            mViewFlags |= VIEW_FLAG_LOADING_MORE;
+        else
+            mViewFlags &= ~VIEW_FLAG_LOADING_MORE;
+        invalidate();
+    }
+
+    /**
+     * @return the distance in pixels that a fling with the given velocity will scroll the list
+     * towards its tail, or a negative value if it scrolls the list towards its head.
+     */
+    private int predictFlingDistance(int velocityX, int velocityY) {
+        final boolean vertical = getLayoutManager().canScrollVertically();
+        final int maxVelocity = getMaxFlingVelocity();
+        int velocity = Math.max(-maxVelocity, Math.min(vertical ? velocityY : velocityX, maxVelocity));
+        if (!vertical && isLayoutRtl())
+            velocity = -velocity;
+
+        if (mFlingPredictor == null)
+            mFlingPredictor = new OverScroller(getContext());
+        mFlingPredictor.fling(0, 0, velocity, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0);
+        final int distance = mFlingPredictor.getFinalX();
+        mFlingPredictor.abortAnimation();
+        return distance;
+    }
+
+    /**
+     * Notifies the {@link OnLoadMoreListener} if the list will stop within the load-more
+     * threshold of its tail.
+     *
+     * @param distance the distance the list is going to scroll towards its tail
+     */
+    private void tryLoadMore(int distance) {
+        final LayoutManager lm = getLayoutManager();
+        final int childCount = getChildCount();
+        if (isLoadingMore() || lm == null || childCount == 0) return;
+
+        // 子View的顺序不一定与其在adapter中的位置一致（如反向布局、RTL的水平布局，
+        // 或StaggeredGridLayoutManager），取其中最大的位置作为最接近尾部的item
+        int lastPosition = NO_POSITION;
+        for (int i = childCount - 1; i >= 0; i--) {
+            final int position = getChildAdapterPosition(getChildAt(i));
+            if (position > lastPosition)
+                lastPosition = position;
+        }
+        if (lastPosition == NO_POSITION) return;
+        int remainingItems = lm.getItemCount() - 1 - lastPosition;
+        if (distance > 0) {
+            // 按屏幕上每像素所展示的item数，估算惯性滑动结束前还会滚过的item数
+            final int span = lm.canScrollVertically() ?
+                    getHeight() - mPaddingTop - mPaddingBottom
+                    : getWidth() - mPaddingStart - mPaddingEnd;
+            if (span > 0)
+                remainingItems -= (int) ((long) distance * childCount / span);
+        }
+        if (remainingItems <= mLoadMoreThreshold) {
+            mViewFlags |= VIEW_FLAG_LOADING_MORE;
+            mOnLoadMoreListener.onLoadMore(this);
+        }
+    }
+
+    /**
+     * @return the current over-scroll offset at the bottom (or end) edge, or 0 if the list
+     * is not over-scrolled at that edge.
+     */
+    private int getTailOverScrollOffset() {
+        if (getLayoutManager() == null)
+            return 0;
+        if (getLayoutManager().canScrollVertically())
+            return Math.max(getPaddingBottom() - mPaddingBottom, 0);
+        return Math.max((SDK_INT >= JELLY_BEAN_MR1 ? getPaddingEnd() : getPaddingRight())
+                - mPaddingEnd, 0);
+    }
+
+    private void drawLoadMoreFooter(Canvas c) {
+        final int offset = getTailOverScrollOffset();
+        if (offset == 0) return;
+
+        if (getLayoutManager().canScrollVertically()) {
+            drawProgressIndicator(c, getWidth() / 2f, getHeight() - mPaddingBottom - offset / 2f,
+                    offset, isLoadingMore());
+        } else {
+            drawProgressIndicator(c,
+                    isLayoutRtl() ? mPaddingEnd + offset / 2f : getWidth() - mPaddingEnd - offset / 2f,
+                    getHeight() / 2f, offset, isLoadingMore());
+        }
+    }
+
+    public interface OnLoadMoreListener {
+        /**
+         * Called when the list is about to reach its tail, usually while it is still being flung.
+         * The data can be loaded asynchronously, after which {@link #setLoadingMore(boolean)}
+         * should be called with false.
+         */
+        void onLoadMore(@NonNull SwipeMenuRecyclerView view);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Item Menu Reveal Styles
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 菜单随内容一同移动（{@link SmoothScrollableLinearLayout#SWIPE_MODE_SCROLL}模式下），
+     * 或固定在内容之下（{@link SmoothScrollableLinearLayout#SWIPE_MODE_TRANSLATE}模式下）
+     * @see #setItemMenuRevealStyle(int)
+     */
+    public static final int ITEM_MENU_REVEAL_STYLE_NONE = 0;
+
+    /**
+     * 菜单中的各按钮从内容的边缘依次展开，距内容越远的按钮移动得越快
+     * @see #setItemMenuRevealStyle(int)
+     */
+    public static final int ITEM_MENU_REVEAL_STYLE_PARALLAX = 1;
+
+    /**
+     * 菜单中的各按钮随itemView的滑开逐渐放大到原始尺寸
+     * @see #setItemMenuRevealStyle(int)
+     */
+    public static final int ITEM_MENU_REVEAL_STYLE_SCALE = 2;
+
+    /**
+     * 菜单固定在itemView的边缘，被滑开的内容从其上方移过
+     * @see #setItemMenuRevealStyle(int)
+     */
+    public static final int ITEM_MENU_REVEAL_STYLE_OVERLAY = 3;
+
+    @IntDef({ITEM_MENU_REVEAL_STYLE_NONE, ITEM_MENU_REVEAL_STYLE_PARALLAX,
+            ITEM_MENU_REVEAL_STYLE_SCALE, ITEM_MENU_REVEAL_STYLE_OVERLAY})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface ItemMenuRevealStyle {
+    }
+
+    @ItemMenuRevealStyle
+    private int mItemMenuRevealStyle = ITEM_MENU_REVEAL_STYLE_NONE;
+
+    /** 在itemView的滑动偏移量改变的同一帧内，更新其菜单的显示效果 */
+    private final SmoothScrollableLinearLayout.OnScrollChangeListener mItemMenuRevealer =
+            new SmoothScrollableLinearLayout.OnScrollChangeListener() {
+                @Override
+                public void onScrollChange(View v, int scrollX, int scrollY, int oldScrollX, int oldScrollY) {
+                    if (mItemMenuRevealStyle != ITEM_MENU_REVEAL_STYLE_NONE)
+                        applyItemMenuReveal((SmoothScrollableLinearLayout) v);
+                }
+            };
+
+    @ItemMenuRevealStyle
+    public int getItemMenuRevealStyle() {
+        return mItemMenuRevealStyle;
+    }
+
+    /**
+     * Sets how the menus of the itemViews are revealed while they are being swiped open.
+     * The effects are applied by setting the translation or scale of the menus (or of the
+     * children of them) from the fraction of each menu that has been uncovered, once per frame
+     * in which the swipe offset changes, without requiring any measure or layout pass.
+     *
+     * @see #ITEM_MENU_REVEAL_STYLE_NONE
+     * @see #ITEM_MENU_REVEAL_STYLE_PARALLAX
+     * @see #ITEM_MENU_REVEAL_STYLE_SCALE
+     * @see #ITEM_MENU_REVEAL_STYLE_OVERLAY
+     */
+    public void setItemMenuRevealStyle(@ItemMenuRevealStyle int style) {
+        if (mItemMenuRevealStyle == style) return;
+        mItemMenuRevealStyle = style;
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (child instanceof SmoothScrollableLinearLayout) {
+                SmoothScrollableLinearLayout itemView = (SmoothScrollableLinearLayout) child;
+                itemView.setContentDrawnOnTop(style == ITEM_MENU_REVEAL_STYLE_OVERLAY);
+                applyItemMenuReveal(itemView);
+            }
+        }
+    }
+
+    private void applyItemMenuReveal(SmoothScrollableLinearLayout itemView) {
+        final View content = itemView.getContentView();
+        final int offset = itemView.getSwipeOffset();
+        for (int i = itemView.getChildCount() - 1; i >= 0; i--) {
+            final View menu = itemView.getChildAt(i);
+            if (menu == content || menu.getVisibility() == GONE) continue;
+
+            final boolean vertical = itemView.getOrientation() == VERTICAL;
+            final int size = vertical ? menu.getHeight() : menu.getWidth();
+            // 菜单位于内容的右侧（或下侧）还是左侧（或上侧）
+            final boolean trailing = menu != itemView.getStartMenuView() ^ isItemSwipeReversed(itemView);
+            final int shown = Math.min(trailing ? Math.max(offset, 0) : Math.max(-offset, 0), size);
+            final float fraction = size == 0 ? 1f : (float) shown / size;
+            // 朝向内容的方向
+            final int towardsContent = trailing ? -1 : 1;
+
+            float menuTranslation = 0f;
+            if (mItemMenuRevealStyle == ITEM_MENU_REVEAL_STYLE_OVERLAY
+                    && itemView.getSwipeMode() == SmoothScrollableLinearLayout.SWIPE_MODE_SCROLL) {
+                // 将菜单移到内容之下，使其贴着itemView的边缘
+                menuTranslation = towardsContent * (size - shown);
+            }
+            setTranslation(menu, vertical, menuTranslation);
+
+            if (menu instanceof ViewGroup) {
+                final ViewGroup buttons = (ViewGroup) menu;
+                for (int j = buttons.getChildCount() - 1; j >= 0; j--)
+                    applyItemMenuButtonReveal(itemView, buttons.getChildAt(j),
+                            vertical, trailing, size, shown, fraction);
+            }
+        }
+    }
+
+    private void applyItemMenuButtonReveal(SmoothScrollableLinearLayout itemView, View button,
+                                           boolean vertical, boolean trailing,
+                                           int menuSize, int shown, float fraction) {
+        float translation = 0f;
+        float scale = 1f;
+        switch (mItemMenuRevealStyle) {
+            case ITEM_MENU_REVEAL_STYLE_PARALLAX:
+                final int towardsContent = trailing ? -1 : 1;
+                // 按钮与内容边缘的距离
+                final int distance = trailing ? (vertical ? button.getTop() : button.getLeft())
+                        : menuSize - (vertical ? button.getBottom() : button.getRight());
+                // 平移模式下，菜单固定在内容之下，先使其靠近内容的边缘随内容移动
+                if (itemView.getSwipeMode() == SmoothScrollableLinearLayout.SWIPE_MODE_TRANSLATE)
+                    translation = -towardsContent * (menuSize - shown);
+                translation += towardsContent * distance * (1f - fraction);
+                break;
+            case ITEM_MENU_REVEAL_STYLE_SCALE:
+                scale = fraction;
+                break;
+        }
+        setTranslation(button, vertical, translation);
+        button.setScaleX(scale);
+        button.setScaleY(scale);
+    }
+
+    private static void setTranslation(View view, boolean vertical, float translation) {
+        if (vertical)
+            view.setTranslationY(translation);
+        else
+            view.setTranslationX(translation);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Swipe to Dismiss
+    ///////////////////////////////////////////////////////////////////////////
+
+    /** itemView被滑出的距离达到其尺寸的此比例时，松手后将其删除 */
+    private static final float ITEM_DISMISS_THRESHOLD = 0.5f;
+
+    /** 在最后一个item被滑出后等待此时间，以将期间连续滑出的item合并为一次回调 */
+    private static final int DELAY_DISPATCH_ITEMS_DISMISSED = 300; // ms
+
+    /**
+     * 已被滑出但尚未回调{@link OnItemsDismissListener}的item，与{@link #mItemSwipeStates}
+     * 使用相同的键，值恒为1
+     */
+    private final ItemSwipeStateStore mDismissedItems = new ItemSwipeStateStore();
+
+    private OnItemsDismissListener mOnItemsDismissListener;
+
+    private final Runnable mDispatchItemsDismissedRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // 等待所有item都被移出列表后再回调
+            if (mItemAnimationDriver.isAnimating()) {
+                postDelayed(this, DELAY_DISPATCH_ITEMS_DISMISSED);
+                return;
+            }
+            dispatchItemsDismissed();
+        }
+    };
+
+    public boolean isItemSwipeToDismissEnabled() {
+        return (mViewFlags & VIEW_FLAG_ITEM_SWIPE_TO_DISMISS_ENABLED) != 0;
+    }
+
+    /**
+     * Sets whether the itemViews can be swiped past their menus and out of the list
+     * to be dismissed. An itemView is dismissed when it is released after being swiped
+     * over half of its size, or flung towards the start side past its menu.
+     * <p>
+     * The dismissed items are reported to the {@link OnItemsDismissListener} together,
+     * once no more items are dismissed in a short while, so that the adapter can remove them
+     * all in a single update.
+     *
+     * @see #setOnItemsDismissListener(OnItemsDismissListener)
+     */
+    public void setItemSwipeToDismissEnabled(boolean enabled) {
+        if (enabled)
+            mViewFlags |= VIEW_FLAG_ITEM_SWIPE_TO_DISMISS_ENABLED;
+        else
+            mViewFlags &= ~VIEW_FLAG_ITEM_SWIPE_TO_DISMISS_ENABLED;
+    }
+
+    public void setOnItemsDismissListener(@Nullable OnItemsDismissListener listener) {
+        mOnItemsDismissListener = listener;
+    }
+
+    /**
+     * Dismisses the item at the given adapter position as if it was swiped out of the list,
+     * e.g., when the delete button in its menu is clicked. It is reported to the
+     * {@link OnItemsDismissListener} along with the other items dismissed at about the same time,
+     * rather than removed from the adapter on its own.
+     */
+    public void dismissItem(int position) {
+        final Adapter adapter = getAdapter();
+        if (adapter == null || position < 0 || position >= adapter.getItemCount()) return;
+
+        final ViewHolder holder = findViewHolderForAdapterPosition(position);
+        if (holder != null && holder.itemView instanceof SmoothScrollableLinearLayout) {
+            dismissItemViewInternal((SmoothScrollableLinearLayout) holder.itemView,
+                    DURATION_ITEM_MENU_AUTO_SCROLL_OUT);
+        } else {
+            mDismissedItems.put(adapter.hasStableIds() ? adapter.getItemId(position) : position, 1);
+            scheduleDispatchItemsDismissed();
+        }
+    }
+
+    /**
+     * @return the distance the given itemView needs to be swiped to move out of the list
+     */
+    private static int getItemDismissDistance(SmoothScrollableLinearLayout itemView) {
+        return itemView.getOrientation() == VERTICAL ? itemView.getHeight() : itemView.getWidth();
+    }
+
+    private boolean isItemDismissPending(View itemView) {
+        return !mDismissedItems.isEmpty() && mDismissedItems.get(getItemSwipeStateKey(itemView)) != 0;
+    }
+
+    private void dismissItemViewInternal(SmoothScrollableLinearLayout itemView, int duration) {
+        final int dismissDist = getItemDismissDistance(itemView);
+        // 记录其偏移量，使其在被删除前即使被重新绑定也保持移出的状态
+        smoothScrollItemViewTo(itemView,
+                isItemSwipeReversed(itemView) ? dismissDist : -dismissDist, duration);
+        mViewFlags &= ~VIEW_FLAG_ITEM_FULL_SCROLLED;
+        if (itemView == mItemView) mItemView = null;
+        if (itemView == mLastItemView) mLastItemView = null;
+
+        mDismissedItems.put(getItemSwipeStateKey(itemView), 1);
+        scheduleDispatchItemsDismissed();
+    }
+
+    private void scheduleDispatchItemsDismissed() {
+        removeCallbacks(mDispatchItemsDismissedRunnable);
+        postDelayed(mDispatchItemsDismissedRunnable, DELAY_DISPATCH_ITEMS_DISMISSED);
+    }
+
+    private void dispatchItemsDismissed() {
+        removeCallbacks(mDispatchItemsDismissedRunnable);
+        final Adapter adapter = getAdapter();
+        if (mDismissedItems.isEmpty() || adapter == null) {
+            mDismissedItems.clear();
+            return;
+        }
+
+        int[] positions = new int[mDismissedItems.size()];
+        int count = 0;
+        if (adapter.hasStableIds()) {
+            // 由stable ID找出各item当前的位置
+            for (int position = adapter.getItemCount() - 1; position >= 0 && count < positions.length;
+                 position--) {
+                if (mDismissedItems.get(adapter.getItemId(position)) != 0)
+                    positions[count++] = position;
+            }
+        } else {
+            for (int i = mDismissedItems.capacity() - 1; i >= 0; i--) {
+                if (mDismissedItems.valueAt(i) != 0)
+                    positions[count++] = (int) mDismissedItems.keyAt(i);
+            }
+        }
+        mDismissedItems.clear();
+        if (count < positions.length) {
+            int[] tmp = new int[count];
+            System.arraycopy(positions, 0, tmp, 0, count);
+            positions = tmp;
+        }
+        // 按位置降序排列，使依次删除时不影响其余item的位置
+        Arrays.sort(positions);
+        for (int i = 0, j = positions.length - 1; i < j; i++, j--) {
+            final int position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+        if (positions.length > 0 && mOnItemsDismissListener != null)
+            mOnItemsDismissListener.onItemsDismissed(this, positions);
+    }
+
+    public interface OnItemsDismissListener {
+        /**
+         * Called with all the items dismissed in a short while, which should be removed from
+         * the adapter in one update. With a {@link android.support.v7.recyclerview.extensions.ListAdapter}
+         * (or an {@link android.support.v7.recyclerview.extensions.AsyncListDiffer}), submitting
+         * the new list computes the diff on a background thread and applies all the removals in
+         * a single layout pass; otherwise, call {@link Adapter#notifyItemRemoved(int)} for each
+         * position after removing them from the data set.
+         *
+         * @param parent    the SwipeMenuRecyclerView the items belong to
+         * @param positions the adapter positions of the dismissed items, in descending order
+         */
+        void onItemsDismissed(@NonNull SwipeMenuRecyclerView parent, @NonNull int[] positions);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Lazy Item Menus
+    ///////////////////////////////////////////////////////////////////////////
+
+    private OnItemMenuInflateListener mOnItemMenuInflateListener;
+
+    /** 各view type的itemView已回收的菜单 */
+    private final SparseArray<ArrayList<View>> mItemMenuPool = new SparseArray<>();
+
+    /** 每种view type最多缓存的菜单数，足以同时容纳一个正在隐藏和一个正在滑开的itemView */
+    private static final int MAX_POOLED_ITEM_MENUS_PER_VIEW_TYPE = 2;
+
+    public boolean isItemMenuSnapshotEnabled() {
+        return (mViewFlags & VIEW_FLAG_ITEM_MENU_SNAPSHOT_ENABLED) != 0;
+    }
+
+    /**
+     * Sets whether to render the menu of an itemView into a layer (a hardware layer, or a bitmap
+     * when not hardware accelerated) once when the itemView starts to be swiped, and slide that
+     * snapshot instead of redrawing the menu on each frame. The live menu is drawn again when
+     * the itemView is completely opened or closed.
+     * <p>
+     * This is useful for complex menus which are expensive to draw, while it costs
+     * the memory of the layer during the swipe.
+     */
+    public void setItemMenuSnapshotEnabled(boolean enabled) {
+        if (enabled) {
+            mViewFlags |= VIEW_FLAG_ITEM_MENU_SNAPSHOT_ENABLED;
+        } else {
+            mViewFlags &= ~VIEW_FLAG_ITEM_MENU_SNAPSHOT_ENABLED;
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                View child = getChildAt(i);
+                if (child instanceof SmoothScrollableLinearLayout)
+                    ((SmoothScrollableLinearLayout) child).releaseMenuSnapshot();
+            }
+        }
+    }
+
+    public boolean isItemMenuPoolingEnabled() {
+        return (mViewFlags & VIEW_FLAG_ITEM_MENU_POOLING_ENABLED) != 0;
+    }
+
+    /**
+     * Sets whether to share the menus among the itemViews of the same view type.
+     * <p>
+     * When enabled, an itemView whose menu is declared with
+     * {@link SmoothScrollableLinearLayout#setMenuLayoutResource(int) a layout resource}
+     * only hosts a menu from the time it starts to be swiped until it is closed or recycled,
+     * then the menu is returned to a small pool for the other itemViews of the same view type,
+     * so the number of the menus no longer grows with the number of the ViewHolders.
+     * <p>
+     * Since a menu may be moved from one itemView to another, the
+     * {@link OnItemMenuInflateListener} is notified each time a menu is added to an itemView,
+     * not only when the menu is inflated.
+     */
+    public void setItemMenuPoolingEnabled(boolean enabled) {
+        if (enabled) {
+            mViewFlags |= VIEW_FLAG_ITEM_MENU_POOLING_ENABLED;
+        } else {
+            mViewFlags &= ~VIEW_FLAG_ITEM_MENU_POOLING_ENABLED;
+            mItemMenuPool.clear();
+        }
+    }
+
+    /**
+     * Sets a listener to be notified when the lazily inflated menu of an itemView
+     * is inflated, so that its click listeners can be set up at that time.
+     *
+     * @see SmoothScrollableLinearLayout#setMenuLayoutResource(int)
+     */
+    public void setOnItemMenuInflateListener(@Nullable OnItemMenuInflateListener listener) {
+        mOnItemMenuInflateListener = listener;
+    }
+
+    /**
+     * Inflates the menu of the given itemView if it is declared to be inflated lazily
+     * and has not been inflated yet.
+     *
+     * @return the width of the menu of the itemView, taken from the cached one of its view type
+     * if any, so that the menu does not need to be laid out before the swipe starts.
+     */
+    private int inflateItemMenuIfNeeded(SmoothScrollableLinearLayout itemView) {
+        View menu = null;
+        if ((mViewFlags & VIEW_FLAG_ITEM_MENU_POOLING_ENABLED) != 0
+                && itemView.getMenuLayoutResource() != 0 && itemView.isMenuInflationPending()) {
+            final ArrayList<View> menus = mItemMenuPool.get(getChildViewHolder(itemView).getItemViewType());
+            if (menus != null && !menus.isEmpty()) {
+                menu = menus.remove(menus.size() - 1);
+                itemView.addMenu(menu);
+            }
+        }
+        if (menu == null)
+            menu = itemView.inflateMenuIfNeeded();
+        if (menu != null) {
+            if (mOnItemMenuInflateListener != null)
+                mOnItemMenuInflateListener.onItemMenuInflated(
+                        this, getChildViewHolder(itemView), menu);
+        }
+        return getItemMenuWidth(itemView);
+    }
+
+    /**
+     * Returns the menu of the given itemView to the pool if menu pooling is enabled
+     * and the itemView has been closed.
+     */
+    private void recycleItemMenuIfClosed(SmoothScrollableLinearLayout itemView) {
+        if ((mViewFlags & VIEW_FLAG_ITEM_MENU_POOLING_ENABLED) != 0
+                && itemView.getSwipeOffset() == 0 && !itemView.isSmoothScrolling()
+                && !(itemView == mItemView && isDraggingItemView()))
+            recycleItemMenu(itemView);
+    }
+
+    private void recycleItemMenu(SmoothScrollableLinearLayout itemView) {
+        if (itemView.getMenuLayoutResource() == 0) return;
+        final View menu = itemView.removeMenu();
+        if (menu == null) return;
+
+        final int viewType = getChildViewHolder(itemView).getItemViewType();
+        ArrayList<View> menus = mItemMenuPool.get(viewType);
+        if (menus == null) {
+            menus = new ArrayList<>(MAX_POOLED_ITEM_MENUS_PER_VIEW_TYPE);
+            mItemMenuPool.put(viewType, menus);
+        }
+        if (menus.size() < MAX_POOLED_ITEM_MENUS_PER_VIEW_TYPE)
+            menus.add(menu);
+    }
+
+    public interface OnItemMenuInflateListener {
+        /**
+         * Called when the lazily inflated menu of an itemView is inflated, which happens
+         * when that itemView starts to be swiped or its menu is opened for the first time,
+         * or when a pooled menu is added to an itemView if menu pooling is enabled.
+         *
+         * @param parent the SwipeMenuRecyclerView the itemView belongs to
+         * @param holder the ViewHolder of the itemView
+         * @param menu   the menu view just inflated
+         */
+        void onItemMenuInflated(SwipeMenuRecyclerView parent, ViewHolder holder, View menu);
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // reflection methods
     ///////////////////////////////////////////////////////////////////////////
@@ -1306,12 +3103,32 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
 
         private Drawable mDivider;
 
+        /** 分割线的厚度，缓存下来以免在每次计算item的偏移量时获取 */
+        private int mDividerSize;
+
+        /** 通过{@link #setColor(int, int)}指定的分割线厚度，为-1时使用drawable的固有尺寸 */
+        private int mExplicitDividerSize = -1;
+
         /**
          * Current orientation. Either {@link #HORIZONTAL} or {@link #VERTICAL}.
          */
         private int mOrientation;
 
+        /** 分割线为纯色时，用同一画笔将所有完整的分割线合并为一次绘制 */
+        private boolean mSolidColor;
+        private final Paint mPaint = new Paint();
+        /** 各条纯色分割线的中线的端点，每4个值表示一条 */
+        private float[] mLines = new float[32];
+        private int mLineCount;
+
+        /** @see #setOverScrollAware(boolean) */
+        private boolean mOverScrollAware;
+
         private final Rect mBounds = new Rect();
+        private final Rect mClipBounds = new Rect();
+
+        /** 本次绘制中，分割线沿列表方向可绘制的范围以及分割线在另一方向上的范围 */
+        private int mDrawStart, mDrawEnd, mCrossStart, mCrossEnd;
 
         /**
          * Creates a divider {@link RecyclerView.ItemDecoration} that can be used with a
@@ -1344,87 +3161,153 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                         "Invalid orientation. It should be either HORIZONTAL or VERTICAL");
             }
             mOrientation = orientation;
+            onDividerChanged();
         }
 
         /**
-         * Sets the {@link Drawable} for this divider.
+         * Sets the {@link Drawable} for this divider. A {@link ColorDrawable} with an intrinsic size
+         * is drawn with a single paint for all the dividers.
          *
          * @param drawable Drawable that should be used as a divider.
+         * @see #setColor(int, int)
          */
         public void setDrawable(@NonNull Drawable drawable) {
             mDivider = drawable;
+            mExplicitDividerSize = -1;
+            onDividerChanged();
         }
 
-        @Override
-        public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
-            if (parent.getLayoutManager() == null || mDivider == null)
-                return;
-            if (mOrientation == VERTICAL)
-                drawVertical(c, parent);
-            else
-                drawHorizontal(c, parent);
+        /**
+         * Uses a solid color divider of the given thickness, which draws all the dividers in
+         * one batched call.
+         *
+         * @param color the color of the divider
+         * @param size  the thickness of the divider in pixels
+         */
+        public void setColor(@ColorInt int color, int size) {
+            mDivider = new ColorDrawable(color);
+            mExplicitDividerSize = Math.max(size, 0);
+            onDividerChanged();
         }
 
-        private void drawVertical(Canvas canvas, RecyclerView parent) {
-            canvas.save();
-            final int left, right;
-            if (parent.getClipToPadding()) {
-                left = parent.getPaddingLeft();
-                right = parent.getWidth() - parent.getPaddingRight();
-                canvas.clipRect(left, parent.getPaddingTop(), right,
-                        parent.getHeight() - parent.getPaddingBottom());
+        private void onDividerChanged() {
+            if (mDivider == null) {
+                mDividerSize = 0;
+                mSolidColor = false;
+                return;
+            }
+            if (mExplicitDividerSize >= 0) {
+                mDividerSize = mExplicitDividerSize;
             } else {
-                left = 0;
-                right = parent.getWidth();
+                mDividerSize = Math.max(mOrientation == VERTICAL ?
+                        mDivider.getIntrinsicHeight() : mDivider.getIntrinsicWidth(), 0);
             }
-
-            final int childCount = parent.getChildCount();
-            for (int i = 0; i < childCount; i++) {
-                View child = parent.getChildAt(i);
-                parent.getDecoratedBoundsWithMargins(child, mBounds);
-                final int bottom = mBounds.bottom + Math.round(child.getTranslationY());
-                final int top = bottom - mDivider.getIntrinsicHeight();
-                mDivider.setBounds(left, top, right, bottom);
-                mDivider.draw(canvas);
-                // draw the divider of recycler's top edge
-                if (i == 0) {
-                    mDivider.setBounds(left, parent.getPaddingTop(), right,
-                            parent.getPaddingTop() + mDivider.getIntrinsicHeight());
-                    mDivider.draw(canvas);
-                }
+            mSolidColor = mDivider instanceof ColorDrawable;
+            if (mSolidColor) {
+                mPaint.setColor(((ColorDrawable) mDivider).getColor());
+                mPaint.setStrokeWidth(mDividerSize);
             }
-            canvas.restore();
         }
 
-        private void drawHorizontal(Canvas canvas, RecyclerView parent) {
-            canvas.save();
-            final int top, bottom;
-            if (parent.getClipToPadding()) {
-                top = parent.getPaddingTop();
-                bottom = parent.getHeight() - parent.getPaddingBottom();
-                canvas.clipRect(parent.getPaddingLeft(), top,
-                        parent.getWidth() - parent.getPaddingRight(), bottom);
+        public boolean isOverScrollAware() {
+            return mOverScrollAware;
+        }
+
+        /**
+         * Sets whether the divider of the top (or start) edge of the list should follow the
+         * content, i.e., be drawn above the first item wherever it is moved to when the list
+         * over-scrolls, instead of staying at the edge of the padding of the list.
+         */
+        public void setOverScrollAware(boolean overScrollAware) {
+            mOverScrollAware = overScrollAware;
+        }
+
+        @Override
+        public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
+            if (parent.getLayoutManager() == null || mDivider == null || mDividerSize == 0
+                    || parent.getChildCount() == 0)
+                return;
+            // 不裁剪canvas，而是将分割线限制在可绘制的范围内，并跳过完全位于其外的分割线
+            if (!c.getClipBounds(mClipBounds))
+                return;
+            final boolean vertical = mOrientation == VERTICAL;
+            final boolean clipToPadding = parent.getClipToPadding();
+            if (vertical) {
+                mCrossStart = clipToPadding ? parent.getPaddingLeft() : 0;
+                mCrossEnd = clipToPadding ? parent.getWidth() - parent.getPaddingRight() : parent.getWidth();
+                mDrawStart = Math.max(clipToPadding ? parent.getPaddingTop() : 0, mClipBounds.top);
+                mDrawEnd = Math.min(clipToPadding ?
+                        parent.getHeight() - parent.getPaddingBottom() : parent.getHeight(), mClipBounds.bottom);
             } else {
-                top = 0;
-                bottom = parent.getHeight();
+                mCrossStart = clipToPadding ? parent.getPaddingTop() : 0;
+                mCrossEnd = clipToPadding ? parent.getHeight() - parent.getPaddingBottom() : parent.getHeight();
+                mDrawStart = Math.max(clipToPadding ? parent.getPaddingLeft() : 0, mClipBounds.left);
+                mDrawEnd = Math.min(clipToPadding ?
+                        parent.getWidth() - parent.getPaddingRight() : parent.getWidth(), mClipBounds.right);
             }
+            if (mDrawStart >= mDrawEnd) return;
 
-            final int childCount = parent.getChildCount();
-            for (int i = 0; i < childCount; i++) {
+            mLineCount = 0;
+            // draw the divider of recycler's top (or start) edge
+            if (!mOverScrollAware) {
+                final int edge = vertical ? parent.getPaddingTop() : parent.getPaddingLeft();
+                drawDivider(c, edge, edge + mDividerSize);
+            }
+            for (int i = 0, childCount = parent.getChildCount(); i < childCount; i++) {
                 View child = parent.getChildAt(i);
                 parent.getLayoutManager().getDecoratedBoundsWithMargins(child, mBounds);
-                final int right = mBounds.right + Math.round(child.getTranslationX());
-                final int left = right - mDivider.getIntrinsicWidth();
-                mDivider.setBounds(left, top, right, bottom);
-                mDivider.draw(canvas);
-                // draw the divider of recycler's start edge
-                if (i == 0) {
-                    mDivider.setBounds(parent.getPaddingLeft(), top,
-                            parent.getPaddingLeft() + mDivider.getIntrinsicWidth(), bottom);
-                    mDivider.draw(canvas);
+                final int translation = Math.round(vertical ? child.getTranslationY() : child.getTranslationX());
+                final int end = (vertical ? mBounds.bottom : mBounds.right) + translation;
+                drawDivider(c, end - mDividerSize, end);
+                // 使顶部的分割线随第一个item一同移动
+                if (mOverScrollAware && ((RecyclerView.LayoutParams) child.getLayoutParams())
+                        .getViewLayoutPosition() == 0) {
+                    final int start = (vertical ? mBounds.top : mBounds.left) + translation;
+                    drawDivider(c, start, start + mDividerSize);
+                }
+            }
+            if (mLineCount > 0)
+                c.drawLines(mLines, 0, mLineCount * 4, mPaint);
+        }
+
+        /**
+         * Draws the divider between the given positions along the orientation of the list,
+         * or adds it to the lines to be drawn at once if it is a solid color one that is
+         * not cut by the drawable area.
+         */
+        private void drawDivider(Canvas c, int start, int end) {
+            if (end <= mDrawStart || start >= mDrawEnd) return;
+
+            final boolean vertical = mOrientation == VERTICAL;
+            if (start < mDrawStart || end > mDrawEnd) {
+                start = Math.max(start, mDrawStart);
+                end = Math.min(end, mDrawEnd);
+                if (mSolidColor) {
+                    if (vertical)
+                        c.drawRect(mCrossStart, start, mCrossEnd, end, mPaint);
+                    else
+                        c.drawRect(start, mCrossStart, end, mCrossEnd, mPaint);
+                    return;
                 }
+            } else if (mSolidColor) {
+                if (mLines.length < (mLineCount + 1) * 4) {
+                    float[] lines = new float[mLines.length * 2];
+                    System.arraycopy(mLines, 0, lines, 0, mLineCount * 4);
+                    mLines = lines;
+                }
+                final float middle = (start + end) / 2f;
+                final int index = mLineCount++ * 4;
+                mLines[index] = vertical ? mCrossStart : middle;
+                mLines[index + 1] = vertical ? middle : mCrossStart;
+                mLines[index + 2] = vertical ? mCrossEnd : middle;
+                mLines[index + 3] = vertical ? middle : mCrossEnd;
+                return;
             }
-            canvas.restore();
+            if (vertical)
+                mDivider.setBounds(mCrossStart, start, mCrossEnd, end);
+            else
+                mDivider.setBounds(start, mCrossStart, end, mCrossEnd);
+            mDivider.draw(c);
         }
 
         @Override
@@ -1434,15 +3317,17 @@ public class SwipeMenuRecyclerView extends RecyclerView implements OverScrollVie
                 outRect.set(0, 0, 0, 0);
                 return;
             }
+            final boolean first = ((RecyclerView.LayoutParams) view.getLayoutParams())
+                    .getViewLayoutPosition() == 0;
             if (mOrientation == VERTICAL) {
-                if (parent.getLayoutManager().getPosition(view) == 0)
-                    outRect.top += mDivider.getIntrinsicHeight();
-                outRect.bottom += mDivider.getIntrinsicHeight();
+                if (first)
+                    outRect.top += mDividerSize;
+                outRect.bottom += mDividerSize;
             } else {
-                if (parent.getLayoutManager().getPosition(view) == 0)
-                    outRect.left += mDivider.getIntrinsicWidth();
-                outRect.right += mDivider.getIntrinsicWidth();
+                if (first)
+                    outRect.left += mDividerSize;
+                outRect.right += mDividerSize;
             }
         }
     }
-}
\ No newline at end of file
+}
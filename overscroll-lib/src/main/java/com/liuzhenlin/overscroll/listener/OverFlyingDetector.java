@@ -93,6 +93,14 @@ public class OverFlyingDetector extends GestureDetector.SimpleOnGestureListener
         mGestureDetector.onTouchEvent(ev);
     }
 
+    /**
+     * Stops waiting for the view being flung to reach an edge, so that no over-fling will be
+     * reported for the last fling, e.g. when the view is detached or reset.
+     */
+    public void cancel() {
+        mHandler.sendEmptyMessage(OverFlyingHandler.MSG_STOP_COMPUTE_FLYING);
+    }
+
     /*
      * fling到两端时才触发OverFling，获取速度并采用演示策略估算View是否滚动到边界
      * 1.监听fling动作 2.获取手指滑动速度（存在滑动但非fling的状态）
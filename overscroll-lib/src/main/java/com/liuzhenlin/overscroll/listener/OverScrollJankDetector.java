@@ -0,0 +1,350 @@
+package com.liuzhenlin.overscroll.listener;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+import android.support.annotation.RequiresApi;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.Window;
+import android.view.WindowManager;
+
+import com.liuzhenlin.overscroll.OverScrollView;
+import com.liuzhenlin.overscroll.SwipeMenuRecyclerView;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN;
+import static android.os.Build.VERSION_CODES.O;
+
+/**
+ * Tracks the frames rendered while an {@link OverScrollView} is over-scrolling, tagging each
+ * of them with the current {@link OverScrollView.OverScrollState state} and
+ * {@link OverScrollView.OverScrollEdge edge} of the view, and reports the janky ones along with
+ * the phase they happened in, so that jank can be attributed to the bounce rather than
+ * to, e.g., the binding of the RecyclerView items.
+ * <p>
+ * Frames are observed through {@link Choreographer} frame callbacks (API 16+), which are only
+ * posted while the view is over-scrolling or animating its item menus, or through
+ * {@link FrameMetrics} (API 26+) when a {@link Window} is given to {@link #start(Window)}.
+ * As the metrics of a frame are delivered some frames after it was drawn, each of them is
+ * attributed to the phase recorded for its vsync timestamp rather than to the current one.
+ * <p>
+ * The state of the view is followed through an {@link OverScrollView.OnOverScrollListener}
+ * added to it while the detector is started, so {@link #start()} should be called again
+ * after the listeners of the view are cleared.
+ */
+public class OverScrollJankDetector {
+    // @formatter:off
+    public static final int PHASE_IDLE = 0;
+    public static final int PHASE_TOUCH_DRAG = 1;
+    public static final int PHASE_OVER_FLING = 2;
+    public static final int PHASE_SPRING_BACK = 3;
+    public static final int PHASE_ITEM_MENU_ANIMATION = 4;
+
+    private static final int PHASE_COUNT = 5;
+
+    @IntDef({
+            PHASE_IDLE, PHASE_TOUCH_DRAG, PHASE_OVER_FLING, PHASE_SPRING_BACK,
+            PHASE_ITEM_MENU_ANIMATION
+    })
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Phase {
+    }
+
+    private final View mView;
+    private final OverScrollView mOverScrollView;
+
+    private final OnJankyFrameListener mOnJankyFrameListener;
+
+    /** 帧时长超过此值时视为卡顿 */
+    private final long mJankThresholdNanos;
+
+    private final int[] mFrameCounts = new int[PHASE_COUNT];
+    private final int[] mJankyFrameCounts = new int[PHASE_COUNT];
+
+    /** 由{@link #mOverScrollListener}记录的View的过度滚动的状态与边缘 */
+    @OverScrollView.OverScrollState
+    private int mOverScrollState = OverScrollView.OVERSCROLL_STATE_IDLE;
+    @OverScrollView.OverScrollEdge
+    private int mOverScrollEdge = OverScrollView.OVERSCROLL_EDGE_UNSPECIFIED;
+
+    /** 过度滚动的距离的绝对值是否在增大，用于区分AUTO_SCROLL状态下的overfling与回弹 */
+    private boolean mOverScrollDistGrowing;
+    private float mLastAbsOverScrollDist;
+
+    private final OverScrollView.OnOverScrollListener mOverScrollListener =
+            new OverScrollView.OnOverScrollListener() {
+                @Override
+                public void onOverScrollStart(OverScrollView view, int edge) {
+                    mOverScrollEdge = edge;
+                    mLastAbsOverScrollDist = 0f;
+                    mOverScrollDistGrowing = true;
+                }
+
+                @Override
+                public void onOverScrollEnd(OverScrollView view, int edge) {
+                    mOverScrollEdge = OverScrollView.OVERSCROLL_EDGE_UNSPECIFIED;
+                    mLastAbsOverScrollDist = 0f;
+                }
+
+                @Override
+                public void onOverScrollDistanceChange(OverScrollView view, float distance) {
+                    final float absDist = Math.abs(distance);
+                    if (absDist != mLastAbsOverScrollDist) {
+                        mOverScrollDistGrowing = absDist > mLastAbsOverScrollDist;
+                        mLastAbsOverScrollDist = absDist;
+                    }
+                }
+
+                @Override
+                public void onOverScrollStateChange(OverScrollView view, int state) {
+                    mOverScrollState = state;
+                    if (state != OverScrollView.OVERSCROLL_STATE_IDLE)
+                        scheduleFrameCallback();
+                }
+            };
+
+    /** item菜单的动画不会改变过度滚动的状态，在其开始时另行安排逐帧回调 */
+    private final SwipeMenuRecyclerView.OnItemMenuAnimationListener mItemMenuAnimationListener =
+            new SwipeMenuRecyclerView.OnItemMenuAnimationListener() {
+                @Override
+                public void onItemMenuAnimationStart(@NonNull SwipeMenuRecyclerView parent) {
+                    scheduleFrameCallback();
+                }
+            };
+
+    private boolean mStarted;
+
+    private FrameCallback mFrameCallback;
+
+    private FrameMetricsListener mFrameMetricsListener;
+    private Window mWindow;
+    private Handler mMainHandler;
+
+    /**
+     * 最近的帧的vsync时间戳及其对应的阶段，循环使用，
+     * 供延迟送达的{@link FrameMetrics}查找其所属的阶段
+     */
+    private final long[] mPhaseFrameTimes = new long[PHASE_HISTORY_SIZE];
+    private final int[] mPhaseHistory = new int[PHASE_HISTORY_SIZE];
+    private int mPhaseHistoryCursor;
+    private static final int PHASE_HISTORY_SIZE = 32;
+    // @formatter:on
+
+    public <V extends View & OverScrollView> OverScrollJankDetector(
+            @NonNull V view, @NonNull OnJankyFrameListener listener) {
+        mView = view;
+        mOverScrollView = view;
+        mOnJankyFrameListener = listener;
+
+        WindowManager wm = (WindowManager) view.getContext().getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = wm == null ? 60f : wm.getDefaultDisplay().getRefreshRate();
+        if (refreshRate < 10f) refreshRate = 60f; // 部分设备返回异常值
+        mJankThresholdNanos = (long) (1000000000L / refreshRate * 1.5f);
+    }
+
+    /**
+     * Starts tracking frames through {@link Choreographer} frame callbacks.
+     * This is a no-op before API 16.
+     */
+    public void start() {
+        if (mStarted) return;
+        if (SDK_INT >= JELLY_BEAN) {
+            mStarted = true;
+            addViewListeners();
+            scheduleFrameCallback();
+        }
+    }
+
+    /**
+     * Starts tracking frames through the {@link FrameMetrics} of the given window,
+     * or through {@link Choreographer} frame callbacks if that is not available (before API 26).
+     */
+    public void start(@NonNull Window window) {
+        if (mStarted) return;
+        if (SDK_INT >= O) {
+            mStarted = true;
+            mWindow = window;
+            if (mFrameMetricsListener == null)
+                mFrameMetricsListener = new FrameMetricsListener();
+            if (mMainHandler == null)
+                mMainHandler = new Handler(Looper.getMainLooper());
+            window.addOnFrameMetricsAvailableListener(mFrameMetricsListener, mMainHandler);
+            addViewListeners();
+            scheduleFrameCallback();
+        } else {
+            start();
+        }
+    }
+
+    public void stop() {
+        if (!mStarted) return;
+        mStarted = false;
+        mOverScrollView.removeOnOverScrollListener(mOverScrollListener);
+        if (mView instanceof SwipeMenuRecyclerView)
+            ((SwipeMenuRecyclerView) mView).removeOnItemMenuAnimationListener(mItemMenuAnimationListener);
+        if (mFrameCallback != null)
+            mFrameCallback.stop();
+        if (mWindow != null) {
+            if (SDK_INT >= O)
+                mWindow.removeOnFrameMetricsAvailableListener(mFrameMetricsListener);
+            mWindow = null;
+        }
+        Arrays.fill(mPhaseFrameTimes, 0L);
+    }
+
+    private void addViewListeners() {
+        mOverScrollView.addOnOverScrollListener(mOverScrollListener);
+        if (mView instanceof SwipeMenuRecyclerView)
+            ((SwipeMenuRecyclerView) mView).addOnItemMenuAnimationListener(mItemMenuAnimationListener);
+    }
+
+    public boolean isStarted() {
+        return mStarted;
+    }
+
+    /**
+     * @return the number of frames tracked in the given phase since started or last reset
+     */
+    public int getFrameCount(@Phase int phase) {
+        return mFrameCounts[phase];
+    }
+
+    /**
+     * @return the number of janky frames tracked in the given phase since started or last reset
+     */
+    public int getJankyFrameCount(@Phase int phase) {
+        return mJankyFrameCounts[phase];
+    }
+
+    public void reset() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            mFrameCounts[i] = 0;
+            mJankyFrameCounts[i] = 0;
+        }
+    }
+
+    /**
+     * @return the phase the attached view is currently in
+     */
+    @Phase
+    public int getCurrentPhase() {
+        switch (mOverScrollState) {
+            case OverScrollView.OVERSCROLL_STATE_TOUCH_SCROLL:
+                return PHASE_TOUCH_DRAG;
+            case OverScrollView.OVERSCROLL_STATE_AUTO_SCROLL:
+                return mOverScrollDistGrowing ? PHASE_OVER_FLING : PHASE_SPRING_BACK;
+        }
+        if (mView instanceof SwipeMenuRecyclerView
+                && ((SwipeMenuRecyclerView) mView).isItemMenuAnimating())
+            return PHASE_ITEM_MENU_ANIMATION;
+        return PHASE_IDLE;
+    }
+
+    private void scheduleFrameCallback() {
+        if (!mStarted || SDK_INT < JELLY_BEAN) return;
+        if (mFrameCallback == null)
+            mFrameCallback = new FrameCallback();
+        mFrameCallback.start();
+    }
+
+    private void recordPhase(long frameTimeNanos, int phase) {
+        mPhaseFrameTimes[mPhaseHistoryCursor] = frameTimeNanos;
+        mPhaseHistory[mPhaseHistoryCursor] = phase;
+        mPhaseHistoryCursor = (mPhaseHistoryCursor + 1) % PHASE_HISTORY_SIZE;
+    }
+
+    /**
+     * @return the phase recorded for the frame with the given vsync timestamp, or
+     * {@link #PHASE_IDLE} if none was recorded, as the frame callbacks are only posted while
+     * the view is not idle.
+     */
+    private int findRecordedPhase(long frameTimeNanos) {
+        for (int i = 0; i < PHASE_HISTORY_SIZE; i++) {
+            if (mPhaseFrameTimes[i] == frameTimeNanos)
+                return mPhaseHistory[i];
+        }
+        return PHASE_IDLE;
+    }
+
+    private void onFrame(int phase, long frameDurationNanos) {
+        mFrameCounts[phase]++;
+        if (frameDurationNanos > mJankThresholdNanos) {
+            mJankyFrameCounts[phase]++;
+            mOnJankyFrameListener.onJankyFrame(mOverScrollView, phase,
+                    mOverScrollEdge, mOverScrollState, frameDurationNanos / 1000000f);
+        }
+    }
+
+    @RequiresApi(JELLY_BEAN)
+    private class FrameCallback implements Choreographer.FrameCallback {
+        long mLastFrameTimeNanos;
+        boolean mPosted;
+
+        void start() {
+            if (mPosted) return;
+            mPosted = true;
+            mLastFrameTimeNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void stop() {
+            if (mPosted) {
+                mPosted = false;
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mPosted = false;
+            final int phase = getCurrentPhase();
+            if (mWindow != null) {
+                // 帧时长由FrameMetrics给出，这里只记录此帧所处的阶段
+                recordPhase(frameTimeNanos, phase);
+            } else if (mLastFrameTimeNanos != 0) {
+                onFrame(phase, frameTimeNanos - mLastFrameTimeNanos);
+            }
+            // 仅在过度滚动或item菜单动画期间逐帧回调，空闲时不再占用每一个vsync
+            if (phase != PHASE_IDLE) {
+                mLastFrameTimeNanos = frameTimeNanos;
+                mPosted = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+
+    @RequiresApi(O)
+    private class FrameMetricsListener implements Window.OnFrameMetricsAvailableListener {
+        @Override
+        public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics,
+                                            int dropCountSinceLastInvocation) {
+            if (!mStarted) return;
+            onFrame(findRecordedPhase(frameMetrics.getMetric(FrameMetrics.VSYNC_TIMESTAMP)),
+                    frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+        }
+    }
+
+    public interface OnJankyFrameListener {
+        /**
+         * Called when a frame took longer than one and a half vsync intervals to render.
+         *
+         * @param view                the view being tracked
+         * @param phase               the phase the view was in when the frame was rendered
+         * @param edge                the over-scroll edge of the view when the frame is reported
+         * @param state               the over-scroll state of the view when the frame is reported
+         * @param frameDurationMillis how long the frame took
+         */
+        void onJankyFrame(OverScrollView view, @Phase int phase,
+                          @OverScrollView.OverScrollEdge int edge,
+                          @OverScrollView.OverScrollState int state,
+                          float frameDurationMillis);
+    }
+}
@@ -0,0 +1,192 @@
+package com.liuzhenlin.overscroll;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for {@link ItemSwipeStateStore}.
+ */
+public class ItemSwipeStateStoreTest {
+    private ItemSwipeStateStore mStore;
+
+    @Before
+    public void setUp() {
+        mStore = new ItemSwipeStateStore();
+    }
+
+    @Test
+    public void put_get_remove() {
+        mStore.put(3, 120);
+        mStore.put(-7, -40);
+        assertEquals(2, mStore.size());
+        assertEquals(120, mStore.get(3));
+        assertEquals(-40, mStore.get(-7));
+        assertEquals(0, mStore.get(4));
+
+        mStore.put(3, 60);
+        assertEquals(2, mStore.size());
+        assertEquals(60, mStore.get(3));
+
+        mStore.remove(3);
+        assertEquals(1, mStore.size());
+        assertEquals(0, mStore.get(3));
+
+        // 偏移量为0即视为未滑开，不被存储
+        mStore.put(-7, 0);
+        assertTrue(mStore.isEmpty());
+    }
+
+    @Test
+    public void remove_keepsCollidingEntriesReachable() {
+        // 足够多的键以触发扩容，并使探测序列上出现大量冲突
+        for (int i = 0; i < 100; i++)
+            mStore.put(i, i + 1);
+        for (int i = 0; i < 100; i += 2)
+            mStore.remove(i);
+
+        assertEquals(50, mStore.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i % 2 == 0 ? 0 : i + 1, mStore.get(i));
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        final Random random = new Random(20171218L);
+        final Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            // 键的范围较小，使插入与删除频繁地作用于同一探测序列
+            final long key = random.nextInt(64) - 16;
+            if (random.nextInt(3) == 0) {
+                mStore.remove(key);
+                expected.remove(key);
+            } else {
+                final int offset = random.nextInt(401) - 200;
+                mStore.put(key, offset);
+                if (offset == 0)
+                    expected.remove(key);
+                else
+                    expected.put(key, offset);
+            }
+            assertEquals(expected.size(), mStore.size());
+        }
+        for (long key = -16; key < 48; key++) {
+            final Integer offset = expected.get(key);
+            assertEquals(offset == null ? 0 : offset, mStore.get(key));
+        }
+    }
+
+    @Test
+    public void clear() {
+        for (int i = 0; i < 20; i++)
+            mStore.put(i, 1);
+        mStore.clear();
+        assertTrue(mStore.isEmpty());
+        for (int i = 0; i < 20; i++)
+            assertEquals(0, mStore.get(i));
+
+        mStore.put(5, 8);
+        assertEquals(8, mStore.get(5));
+    }
+
+    @Test
+    public void iterateOverSlots() {
+        mStore.put(1, 10);
+        mStore.put(2, 20);
+        mStore.put(40, 400);
+
+        final Map<Long, Integer> entries = new HashMap<>();
+        for (int i = 0; i < mStore.capacity(); i++) {
+            if (mStore.valueAt(i) != 0)
+                entries.put(mStore.keyAt(i), mStore.valueAt(i));
+        }
+        assertEquals(3, entries.size());
+        assertEquals(10, (int) entries.get(1L));
+        assertEquals(20, (int) entries.get(2L));
+        assertEquals(400, (int) entries.get(40L));
+    }
+
+    @Test
+    public void offsetPositions_insert() {
+        mStore.put(1, 10);
+        mStore.put(3, 30);
+        mStore.put(5, 50);
+
+        mStore.offsetPositions(3, 2);
+
+        assertEquals(3, mStore.size());
+        assertEquals(10, mStore.get(1));
+        assertEquals(0, mStore.get(3));
+        assertEquals(30, mStore.get(5));
+        assertEquals(50, mStore.get(7));
+    }
+
+    @Test
+    public void offsetPositions_remove() {
+        mStore.put(1, 10);
+        mStore.put(2, 20);
+        mStore.put(3, 30);
+        mStore.put(5, 50);
+
+        // 移除位置2、3处的item
+        mStore.offsetPositions(2, -2);
+
+        assertEquals(2, mStore.size());
+        assertEquals(10, mStore.get(1));
+        assertEquals(0, mStore.get(2));
+        assertEquals(50, mStore.get(3));
+        assertEquals(0, mStore.get(5));
+    }
+
+    @Test
+    public void movePosition_forward() {
+        mStore.put(0, 10);
+        mStore.put(2, 20);
+        mStore.put(4, 40);
+
+        // 位置0处的item移到位置3，其间的item前移一位
+        mStore.movePosition(0, 3);
+
+        assertEquals(3, mStore.size());
+        assertEquals(0, mStore.get(0));
+        assertEquals(20, mStore.get(1));
+        assertEquals(0, mStore.get(2));
+        assertEquals(10, mStore.get(3));
+        assertEquals(40, mStore.get(4));
+    }
+
+    @Test
+    public void movePosition_backward() {
+        mStore.put(0, 10);
+        mStore.put(2, 20);
+        mStore.put(4, 40);
+
+        // 位置4处的item移到位置1，其间的item后移一位
+        mStore.movePosition(4, 1);
+
+        assertEquals(3, mStore.size());
+        assertEquals(10, mStore.get(0));
+        assertEquals(40, mStore.get(1));
+        assertEquals(0, mStore.get(2));
+        assertEquals(20, mStore.get(3));
+        assertEquals(0, mStore.get(4));
+    }
+
+    @Test
+    public void movePosition_unswipedItem() {
+        mStore.put(1, 10);
+
+        // 未滑开的item移动后仍不被存储，只有其间的item移位
+        mStore.movePosition(0, 2);
+
+        assertEquals(1, mStore.size());
+        assertEquals(10, mStore.get(0));
+        assertEquals(0, mStore.get(2));
+    }
+}
@@ -0,0 +1,225 @@
+package com.liuzhenlin.overscroll;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.liuzhenlin.overscroll.OverScrollView.DELIVERY_MODE_IMMEDIATE;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_EDGE_TOP;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_STATE_AUTO_SCROLL;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_STATE_IDLE;
+import static com.liuzhenlin.overscroll.OverScrollView.OVERSCROLL_STATE_TOUCH_SCROLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the add, remove and dispatch logic of {@link OverScrollListenerRegistry}.
+ * <p>
+ * Only the immediate and executor deliveries are covered, which do not need a host view
+ * or the main looper; the frame-coalesced and idle ones are left to instrumented tests.
+ */
+public class OverScrollListenerRegistryTest {
+    private OverScrollListenerRegistry mRegistry;
+
+    @Before
+    public void setUp() {
+        // 立即分发及在executor上分发时不会用到宿主View
+        mRegistry = new OverScrollListenerRegistry(null);
+    }
+
+    @Test
+    public void dispatch_immediate_inOrder() {
+        RecordingListener a = new RecordingListener("a");
+        RecordingListener b = new RecordingListener("b");
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, null);
+        mRegistry.add(b, DELIVERY_MODE_IMMEDIATE, null);
+
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+        mRegistry.dispatchOverScrollStateChange(OVERSCROLL_STATE_TOUCH_SCROLL);
+        mRegistry.dispatchOverScrollDistanceChange(12f);
+        mRegistry.dispatchOverScrollEnd(OVERSCROLL_EDGE_TOP);
+
+        final List<String> expected = Arrays.asList(
+                "start " + OVERSCROLL_EDGE_TOP,
+                "state " + OVERSCROLL_STATE_TOUCH_SCROLL,
+                "distance 12.0",
+                "end " + OVERSCROLL_EDGE_TOP);
+        assertEquals(expected, a.events);
+        assertEquals(expected, b.events);
+    }
+
+    @Test
+    public void add_twice_replacesEntry() {
+        RecordingListener a = new RecordingListener("a");
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, null);
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, null);
+
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+        assertEquals(1, a.events.size());
+    }
+
+    @Test
+    public void remove_stopsDelivery() {
+        RecordingListener a = new RecordingListener("a");
+        RecordingListener b = new RecordingListener("b");
+        RecordingListener c = new RecordingListener("c");
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, null);
+        mRegistry.add(b, DELIVERY_MODE_IMMEDIATE, null);
+        mRegistry.add(c, DELIVERY_MODE_IMMEDIATE, null);
+
+        mRegistry.remove(b);
+        // 移除未添加过的监听器没有影响
+        mRegistry.remove(new RecordingListener("d"));
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+
+        assertEquals(1, a.events.size());
+        assertTrue(b.events.isEmpty());
+        assertEquals(1, c.events.size());
+    }
+
+    @Test
+    public void remove_duringDispatch_skipsRemovedListener() {
+        final RecordingListener b = new RecordingListener("b");
+        RecordingListener a = new RecordingListener("a") {
+            @Override
+            public void onOverScrollStart(OverScrollView view, int edge) {
+                super.onOverScrollStart(view, edge);
+                mRegistry.remove(b);
+            }
+        };
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, null);
+        mRegistry.add(b, DELIVERY_MODE_IMMEDIATE, null);
+
+        // 正在遍历的快照中仍有b，但它已被标记为移除
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+
+        assertEquals(1, a.events.size());
+        assertTrue(b.events.isEmpty());
+    }
+
+    @Test
+    public void add_duringDispatch_takesEffectFromNextEvent() {
+        final RecordingListener b = new RecordingListener("b");
+        RecordingListener a = new RecordingListener("a") {
+            @Override
+            public void onOverScrollStart(OverScrollView view, int edge) {
+                super.onOverScrollStart(view, edge);
+                mRegistry.add(b, DELIVERY_MODE_IMMEDIATE, null);
+            }
+        };
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, null);
+
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+        assertTrue(b.events.isEmpty());
+
+        mRegistry.dispatchOverScrollEnd(OVERSCROLL_EDGE_TOP);
+        assertEquals(Arrays.asList("end " + OVERSCROLL_EDGE_TOP), b.events);
+    }
+
+    @Test
+    public void clear_stopsDelivery() {
+        RecordingListener a = new RecordingListener("a");
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, null);
+        mRegistry.clear();
+
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+        assertTrue(a.events.isEmpty());
+    }
+
+    @Test
+    public void dispatch_executor_queuesAndCoalescesDistances() {
+        QueueExecutor executor = new QueueExecutor();
+        RecordingListener a = new RecordingListener("a");
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, executor);
+
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+        mRegistry.dispatchOverScrollDistanceChange(1f);
+        mRegistry.dispatchOverScrollDistanceChange(2f);
+        mRegistry.dispatchOverScrollDistanceChange(3f);
+        mRegistry.dispatchOverScrollStateChange(OVERSCROLL_STATE_AUTO_SCROLL);
+        mRegistry.dispatchOverScrollDistanceChange(0f);
+
+        // 只在队列为空时安排一次分发
+        assertEquals(1, executor.tasks.size());
+        assertTrue(a.events.isEmpty());
+
+        executor.runAll();
+        assertEquals(Arrays.asList(
+                "start " + OVERSCROLL_EDGE_TOP,
+                "distance 3.0",
+                "state " + OVERSCROLL_STATE_AUTO_SCROLL,
+                "distance 0.0"), a.events);
+
+        // 队列清空后，新的事件会再次安排分发
+        mRegistry.dispatchOverScrollStateChange(OVERSCROLL_STATE_IDLE);
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals("state " + OVERSCROLL_STATE_IDLE, a.events.get(a.events.size() - 1));
+    }
+
+    @Test
+    public void remove_beforeExecutorRuns_dropsQueuedEvents() {
+        QueueExecutor executor = new QueueExecutor();
+        RecordingListener a = new RecordingListener("a");
+        mRegistry.add(a, DELIVERY_MODE_IMMEDIATE, executor);
+
+        mRegistry.dispatchOverScrollStart(OVERSCROLL_EDGE_TOP);
+        mRegistry.remove(a);
+        executor.runAll();
+
+        assertTrue(a.events.isEmpty());
+    }
+
+    private static class RecordingListener implements OverScrollView.OnOverScrollListener {
+        final String name;
+        final List<String> events = new ArrayList<>();
+
+        RecordingListener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onOverScrollStart(OverScrollView view, int edge) {
+            events.add("start " + edge);
+        }
+
+        @Override
+        public void onOverScrollEnd(OverScrollView view, int edge) {
+            events.add("end " + edge);
+        }
+
+        @Override
+        public void onOverScrollDistanceChange(OverScrollView view, float distance) {
+            events.add("distance " + distance);
+        }
+
+        @Override
+        public void onOverScrollStateChange(OverScrollView view, int state) {
+            events.add("state " + state);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /** 将任务保存起来，由测试在需要时统一执行 */
+    private static class QueueExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty())
+                tasks.remove(0).run();
+        }
+    }
+}